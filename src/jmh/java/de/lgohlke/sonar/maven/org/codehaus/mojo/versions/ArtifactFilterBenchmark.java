@@ -0,0 +1,173 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * measures filters built by {@link ArtifactFilterFactory} from rule params, the match benchmarks report the time per
+ * match and with <tt>-prof gc</tt> the bytes allocated per match (<tt>gc.alloc.rate.norm</tt>)
+ *
+ * @author Lars Gohlke
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArtifactFilterBenchmark {
+  private static final int COORDINATES = 100000;
+  private static final String WHITELIST = "whitelist";
+  private static final String BLACKLIST = "blacklist";
+  private static final String[] GROUPS = {
+      "org.apache.commons", "org.apache.maven.plugins", "org.codehaus.mojo", "com.google.guava", "org.springframework",
+      "org.hibernate", "junit", "org.testng", "ch.qos.logback", "org.slf4j", "org.codehaus.sonar", "com.thoughtworks.xstream"};
+  private static final String[] QUALIFIERS = {"", "", "", "-SNAPSHOT", "-RC1", ".M2", "-beta-1", ".Final"};
+
+  @Param({"10", "100", "1000"})
+  private int rules;
+
+  @Param({"false", "true"})
+  private boolean automaton;
+
+  private Map<String, String> ruleParams;
+  private List<ArtifactUpdate> updates;
+  private ArtifactFilter filter;
+  private ArtifactFilterSnapshot snapshot;
+
+  @Setup
+  public void setUp() {
+    ruleParams = ImmutableMap.of(WHITELIST, ".*", BLACKLIST, Joiner.on('\n').join(generateRules(rules)));
+    updates = generateUpdates(COORDINATES);
+    filter = createFilter().setAutomatonEnabled(automaton);
+    snapshot = filter.snapshot();
+  }
+
+  @Benchmark
+  public ArtifactFilter createFilterFromMapAndMerge() {
+    return createFilter();
+  }
+
+  @Benchmark
+  public ArtifactFilterSnapshot createAndCompileFilter() {
+    return createFilter().setAutomatonEnabled(automaton).snapshot();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COORDINATES)
+  public int acceptUpdateStrings() {
+    int accepted = 0;
+    for (ArtifactUpdate update : updates) {
+      if (filter.acceptArtifact(update.toString())) {
+        accepted++;
+      }
+    }
+    return accepted;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COORDINATES)
+  public int acceptUpdates() {
+    int accepted = 0;
+    for (ArtifactUpdate update : updates) {
+      if (filter.acceptArtifact(update)) {
+        accepted++;
+      }
+    }
+    return accepted;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COORDINATES)
+  public int acceptUpdatesOnSnapshot() {
+    int accepted = 0;
+    for (ArtifactUpdate update : updates) {
+      if (snapshot.acceptArtifact(update)) {
+        accepted++;
+      }
+    }
+    return accepted;
+  }
+
+  private ArtifactFilter createFilter() {
+    ArtifactFilter filterFromSettings = new ArtifactFilter(".*");
+    ArtifactFilter filterFromRules = ArtifactFilterFactory.createFilterFromMap(ruleParams, WHITELIST, BLACKLIST);
+    return ArtifactFilterFactory.createFilterFromMerge(filterFromSettings, filterFromRules);
+  }
+
+  /**
+   * the kinds of rules found in quality profiles: exact coordinates, group prefixes, artifact and version patterns
+   */
+  static List<String> generateRules(int count) {
+    List<String> rules = Lists.newArrayList();
+    for (int i = 0; i < count; i++) {
+      String group = GROUPS[i % GROUPS.length];
+      switch (i % 4) {
+        case 0:
+          rules.add(group + ":artifact-" + i + ":1." + i);
+          break;
+        case 1:
+          rules.add(group.replace(".", "\\.") + "\\.sub" + i + ":.*");
+          break;
+        case 2:
+          rules.add("[^:]+:artifact-" + i + ":.*");
+          break;
+        default:
+          rules.add("[^:].*?:[^:].*?:[^:]*-beta-" + i + ".*");
+          break;
+      }
+    }
+    return rules;
+  }
+
+  static List<ArtifactUpdate> generateUpdates(int count) {
+    Random random = new Random(42);
+    List<ArtifactUpdate> updates = Lists.newArrayListWithCapacity(count);
+    for (int i = 0; i < count; i++) {
+      String group = GROUPS[random.nextInt(GROUPS.length)];
+      String artifact = "artifact-" + random.nextInt(2000);
+      String version = random.nextInt(5) + "." + random.nextInt(20) + QUALIFIERS[random.nextInt(QUALIFIERS.length)];
+      String candidate = random.nextInt(5) + "." + random.nextInt(20) + "." + random.nextInt(10);
+      updates.add(new ArtifactUpdate(DependencyUtils.createDependency(group, artifact, version), new DefaultArtifactVersion(candidate)));
+    }
+    return updates;
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import com.google.common.collect.Lists;
+import org.apache.maven.model.Dependency;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * measures resolving the violation lines of all plugins of generated poms
+ *
+ * @author Lars Gohlke
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PomIndexBenchmark {
+  /**
+   * a pom is never shorter than its plugins need, so small poms with many plugins are longer than requested
+   */
+  @Param({"1000", "10000", "100000"})
+  private int lines;
+
+  @Param({"10", "200", "2000"})
+  private int plugins;
+
+  private String source;
+  private byte[] bytes;
+  private List<Dependency> lookups;
+  private PomIndexCache cache;
+
+  @Setup
+  public void setUp() throws UnsupportedEncodingException {
+    source = generatePom(lines, plugins);
+    bytes = source.getBytes("UTF-8");
+    lookups = Lists.newArrayList();
+    for (int i = 0; i < plugins; i++) {
+      lookups.add(DependencyUtils.createDependency("org.example.group" + i, "plugin-" + i, "1." + i));
+    }
+    cache = new PomIndexCache();
+  }
+
+  @Benchmark
+  public int getLineOfLastPlugin() {
+    return PomUtils.getLine(source, lookups.get(lookups.size() - 1), PomUtils.TYPE.plugin);
+  }
+
+  @Benchmark
+  public int indexAndResolveAllPlugins() {
+    return resolveAll(PomIndex.create(source));
+  }
+
+  @Benchmark
+  public int streamIndexAndResolveAllPlugins() {
+    return resolveAll(PomIndex.create(new ByteArrayInputStream(bytes)));
+  }
+
+  @Benchmark
+  public int cachedIndexAndResolveAllPlugins() {
+    return resolveAll(cache.getIndex(source));
+  }
+
+  private int resolveAll(PomIndex index) {
+    int sum = 0;
+    for (Dependency dependency : lookups) {
+      sum += index.getLine(dependency, PomUtils.TYPE.plugin);
+    }
+    return sum;
+  }
+
+  static String generatePom(int lines, int plugins) {
+    int linesPerPlugin = 5;
+    int fillerLines = Math.max(0, lines - plugins * linesPerPlugin - 10);
+
+    StringBuilder pom = new StringBuilder();
+    pom.append("<project>\n");
+    pom.append("  <modelVersion>4.0.0</modelVersion>\n");
+    pom.append("  <properties>\n");
+    for (int i = 0; i < fillerLines; i++) {
+      pom.append("    <property.").append(i).append('>').append(i).append("</property.").append(i).append(">\n");
+    }
+    pom.append("  </properties>\n");
+    pom.append("  <build>\n");
+    pom.append("    <plugins>\n");
+    for (int i = 0; i < plugins; i++) {
+      pom.append("      <plugin>\n");
+      pom.append("        <groupId>org.example.group").append(i).append("</groupId>\n");
+      pom.append("        <artifactId>plugin-").append(i).append("</artifactId>\n");
+      pom.append("        <version>1.").append(i).append("</version>\n");
+      pom.append("      </plugin>\n");
+    }
+    pom.append("    </plugins>\n");
+    pom.append("  </build>\n");
+    pom.append("</project>\n");
+    return pom.toString();
+  }
+}
@@ -19,9 +19,13 @@
  */
 package de.lgohlke.sonar;
 
+import de.lgohlke.sonar.maven.org.codehaus.mojo.versions.ArtifactFilterRegistry;
 import de.lgohlke.sonar.maven.org.codehaus.mojo.versions.DisplayDependencyUpdatesSensor;
 import de.lgohlke.sonar.maven.org.codehaus.mojo.versions.DisplayPluginUpdatesSensor;
+import de.lgohlke.sonar.maven.org.codehaus.mojo.versions.PomIndexCache;
+import de.lgohlke.sonar.maven.org.codehaus.mojo.versions.UnifiedVersionsExecution;
 import de.lgohlke.sonar.maven.org.codehaus.mojo.versions.UpdateParentPomSensor;
+import de.lgohlke.sonar.maven.org.codehaus.mojo.versions.VersionMetadataCacheLifecycle;
 import org.sonar.api.Properties;
 import org.sonar.api.Property;
 import org.sonar.api.PropertyType;
@@ -41,12 +45,58 @@ import java.util.List;
             global = true,
             project = true,
             type = PropertyType.BOOLEAN
+        ),
+        @Property(
+            key = MavenPlugin.FILTER_AUTOMATON,
+            name = "automaton filter matching",
+            description = "Match the whitelist and blacklist regex of all rules with combined automata, " +
+                "rules which are not regular (anchors, back references, lookarounds) are still matched as regex.",
+            defaultValue = "true",
+            global = true,
+            project = true,
+            type = PropertyType.BOOLEAN
+        ),
+        @Property(
+            key = MavenPlugin.FILTER_CACHE_SIZE,
+            name = "filter decision cache size",
+            description = "Number of artifact coordinates for which the whitelist/blacklist decision is remembered, " +
+                "0 disables the cache.",
+            defaultValue = "0",
+            global = true,
+            project = true,
+            type = PropertyType.INTEGER
+        ),
+        @Property(
+            key = MavenPlugin.VERSION_CACHE_TTL,
+            name = "version cache time to live",
+            description = "Hours the versions resolved for an artifact are kept in the sonar working directory and reused by " +
+                "later analyses, 0 disables the persistent cache.",
+            defaultValue = "0",
+            global = true,
+            project = true,
+            type = PropertyType.INTEGER
+        ),
+        @Property(
+            key = MavenPlugin.LOOKUP_EXECUTOR,
+            name = "metadata lookup executor",
+            description = "Threads the version lookups run on: a fixed thread pool or, on java 21 and later, " +
+                "a virtual thread per lookup, older java versions use the fixed thread pool; both run at most as many " +
+                "lookups at the same time as there are lookup threads.",
+            defaultValue = "FIXED_THREAD_POOL",
+            global = true,
+            project = true,
+            type = PropertyType.SINGLE_SELECT_LIST,
+            options = {"FIXED_THREAD_POOL", "VIRTUAL_THREAD_PER_TASK"}
         )
     }
 )
 public class MavenPlugin extends SonarPlugin {
   public static final String PLUGIN_KEY      = "sonar.maven";
   public static final String ANALYSIS_ENABLED = PLUGIN_KEY +".analysis";
+  public static final String FILTER_AUTOMATON = PLUGIN_KEY + ".filter.automaton";
+  public static final String FILTER_CACHE_SIZE = PLUGIN_KEY + ".filter.cacheSize";
+  public static final String VERSION_CACHE_TTL = PLUGIN_KEY + ".versionCache.ttl";
+  public static final String LOOKUP_EXECUTOR = PLUGIN_KEY + ".lookup.executor";
   public static final String REPOSITORY_KEY = "maven";
   static final String REPOSITORY_NAME = "Maven";
   public static final String DEFAULT = "true";
@@ -59,13 +109,25 @@ public class MavenPlugin extends SonarPlugin {
         DisplayDependencyUpdatesSensor.class,
         UpdateParentPomSensor.class,
 
+        // one versions-maven-plugin execution per module for all sensors above
+        UnifiedVersionsExecution.class,
+
         RulesRepository.class,
 
         // xml language from xml-plugin
         Xml.class,
 
         // source importer
-        PomSourceImporter.class
+        PomSourceImporter.class,
+
+        // pom line indexes shared by the sensors
+        PomIndexCache.class,
+
+        // compiled artifact filters shared by the sensors
+        ArtifactFilterRegistry.class,
+
+        // version metadata cached for the batch
+        VersionMetadataCacheLifecycle.class
 
         // code colorizer
         // XmlCodeColorizerFormat.class
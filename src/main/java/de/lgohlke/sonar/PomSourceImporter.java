@@ -30,7 +30,11 @@ import org.sonar.api.resources.Java;
 import org.sonar.api.resources.ProjectFileSystem;
 import org.sonar.plugins.xml.language.Xml;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @SupportedEnvironment("maven")
@@ -60,6 +64,27 @@ public class PomSourceImporter extends AbstractSourceImporter implements BatchCo
     return index.getSource(file);
   }
 
+  /**
+   * @return null if the project has no pom on disk
+   */
+  public File getPomOnDisk() {
+    File pom = project.getFile();
+    return pom == null || !pom.isFile() ? null : pom;
+  }
+
+  /**
+   * opens the pom for reading it as a stream, instead of getting its whole source with {@link #getSourceOfPom()}
+   *
+   * @return null if the project has no pom on disk
+   */
+  public InputStream openPomStream() throws IOException {
+    File pom = getPomOnDisk();
+    if (pom == null) {
+      return null;
+    }
+    return new BufferedInputStream(new FileInputStream(pom));
+  }
+
   public org.sonar.api.resources.File getPomFile() {
     final org.sonar.api.resources.File file = new org.sonar.api.resources.File("", project.getFile().getName());
     file.setLanguage(Xml.INSTANCE);
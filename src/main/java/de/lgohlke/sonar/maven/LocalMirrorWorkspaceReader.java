@@ -0,0 +1,125 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.Lists;
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import org.sonatype.aether.artifact.Artifact;
+import org.sonatype.aether.repository.WorkspaceReader;
+import org.sonatype.aether.repository.WorkspaceRepository;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * resolves artifacts and their available versions from a directory in maven 2 repository layout, e.g. a mirror
+ * synchronized onto the build agent
+ * <p/>
+ * used for offline runs, where no remote repository is asked; version lookups of the versions-maven-plugin go through
+ * the artifact metadata source instead, they read the mirror passed as {@link Maven3SonarEmbedder#LOCAL_MIRROR_PROPERTY}
+ *
+ * @author Lars Gohlke
+ */
+class LocalMirrorWorkspaceReader implements WorkspaceReader {
+  static final String CONTENT_TYPE = "local-mirror";
+  private static final Comparator<String> VERSION_ORDER = new Comparator<String>() {
+    @Override
+    public int compare(String version, String other) {
+      return new ComparableVersion(version).compareTo(new ComparableVersion(other));
+    }
+  };
+
+  private final File mirrorDirectory;
+  private final WorkspaceRepository repository;
+
+  LocalMirrorWorkspaceReader(final File mirrorDirectory) {
+    checkNotNull(mirrorDirectory);
+    checkArgument(mirrorDirectory.isDirectory(), "local mirror " + mirrorDirectory + " is not a directory");
+    this.mirrorDirectory = mirrorDirectory.getAbsoluteFile();
+    this.repository = new WorkspaceRepository(CONTENT_TYPE, this.mirrorDirectory);
+  }
+
+  @Override
+  public WorkspaceRepository getRepository() {
+    return repository;
+  }
+
+  @Override
+  public File findArtifact(final Artifact artifact) {
+    File versionDirectory = new File(artifactDirectory(artifact), artifact.getBaseVersion());
+    File file = new File(versionDirectory, fileName(artifact));
+    return file.isFile() ? file : null;
+  }
+
+  /**
+   * a version is available when its directory holds a file of the requested artifact type
+   */
+  @Override
+  public List<String> findVersions(final Artifact artifact) {
+    File[] versionDirectories = artifactDirectory(artifact).listFiles(new FileFilter() {
+      @Override
+      public boolean accept(File file) {
+        return file.isDirectory();
+      }
+    });
+    if (versionDirectories == null) {
+      return Collections.emptyList();
+    }
+
+    List<String> versions = Lists.newArrayList();
+    for (File versionDirectory : versionDirectories) {
+      String version = versionDirectory.getName();
+      if (new File(versionDirectory, fileName(artifact.getArtifactId(), version, artifact.getClassifier(), artifact.getExtension())).isFile()) {
+        versions.add(version);
+      }
+    }
+    Collections.sort(versions, VERSION_ORDER);
+    return versions;
+  }
+
+  private File artifactDirectory(final Artifact artifact) {
+    File groupDirectory = new File(mirrorDirectory, artifact.getGroupId().replace('.', File.separatorChar));
+    return new File(groupDirectory, artifact.getArtifactId());
+  }
+
+  private static String fileName(final Artifact artifact) {
+    return fileName(artifact.getArtifactId(), artifact.getVersion(), artifact.getClassifier(), artifact.getExtension());
+  }
+
+  private static String fileName(final String artifactId, final String version, final String classifier, final String extension) {
+    StringBuilder builder = new StringBuilder(artifactId).append('-').append(version);
+    if (classifier != null && classifier.length() > 0) {
+      builder.append('-').append(classifier);
+    }
+    return builder.append('.').append(extension).toString();
+  }
+
+  @Override
+  public String toString() {
+    return Objects.toStringHelper(this).add("directory", mirrorDirectory).toString();
+  }
+}
@@ -19,35 +19,96 @@
  */
 package de.lgohlke.sonar.maven;
 
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import de.lgohlke.sonar.maven.MavenRunResult.Phase;
 import de.lgohlke.sonar.maven.internals.PlexusSlf4JLogger;
 import hudson.maven.MavenEmbedder;
 import hudson.maven.MavenEmbedderException;
 import hudson.maven.MavenRequest;
 import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.maven.cli.MavenLoggerManager;
+import org.apache.maven.execution.MavenExecutionRequest;
 import org.apache.maven.execution.MavenExecutionResult;
 import org.codehaus.plexus.component.repository.exception.ComponentLookupException;
+import org.fest.reflect.exception.ReflectionError;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static com.google.common.base.Preconditions.*;
+import static org.fest.reflect.core.Reflection.field;
 
 
 @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
 @Slf4j
 public class Maven3SonarEmbedder {
+  static final String PER_CORE_SUFFIX = "C";
+  /**
+   * user property naming the local mirror, the bridge mojos add the versions found there to their lookups
+   */
+  public static final String LOCAL_MIRROR_PROPERTY = "sonar.maven.localMirror";
+
   private final MavenEmbedder embedder;
+  @Getter(AccessLevel.PACKAGE)
   private final MavenRequest mavenRequest;
+  private final MavenEmbedderPool pool;
+  private final File mavenHome;
+  /**
+   * the embedder booted by the builder is reported by the first run
+   */
+  private long unreportedBootNanos;
+
+  /**
+   * @return the timings of the run, they are logged at INFO as well
+   */
+  public MavenRunResult run() throws MavenEmbedderException {
+    PhaseTimer timer = new PhaseTimer(Ticker.systemTicker());
+    long start = timer.read();
+    if (pool == null) {
+      timer.add(Phase.CONTAINER_BOOT, unreportedBootNanos);
+      unreportedBootNanos = 0;
+      execute(embedder, timer);
+    } else {
+      int logLevel = mavenRequest.getLoggingLevel();
+      MavenEmbedder pooledEmbedder = pool.lease(mavenHome, mavenRequest);
+      timer.addSince(Phase.CONTAINER_BOOT, start);
+      boolean reusable = false;
+      try {
+        execute(pooledEmbedder, timer);
+        reusable = true;
+      } catch (MavenEmbedderException e) {
+        // a failed build leaves the container intact
+        reusable = true;
+        throw e;
+      } finally {
+        if (reusable) {
+          pool.release(mavenHome, logLevel, pooledEmbedder);
+        } else {
+          MavenEmbedderPool.dispose(pooledEmbedder);
+        }
+      }
+    }
+    MavenRunResult result = timer.toResult(timer.read() - start);
+    log.info("maven run of {} took {}", mavenRequest.getGoals(), result);
+    return result;
+  }
 
-  public void run() throws MavenEmbedderException {
+  private void execute(MavenEmbedder mavenEmbedder, PhaseTimer timer) throws MavenEmbedderException {
     try {
-      MavenExecutionResult result = embedder.execute(mavenRequest);
+      long bindStart = timer.read();
+      bindRequest(mavenEmbedder, timer);
+      timer.addSince(Phase.CONTAINER_BOOT, bindStart);
+      MavenExecutionResult result = mavenEmbedder.execute(mavenRequest);
+      timer.addSince(Phase.SESSION_END, timer.getLastMojoEnd(timer.read()));
       if (result.hasExceptions()) {
         final Throwable firstException = result.getExceptions().get(0);
         throw new MavenEmbedderException(firstException);
@@ -57,6 +118,38 @@ public class Maven3SonarEmbedder {
     }
   }
 
+  /**
+   * the embedder executes the request it is bound to, see {@link MavenEmbedderPool#lease(File, MavenRequest)}; the
+   * thread configuration and the offline mode are never copied into it by the embedder
+   */
+  private void bindRequest(MavenEmbedder mavenEmbedder, PhaseTimer timer) throws MavenEmbedderException {
+    try {
+      MavenExecutionRequest executionRequest = field("mavenExecutionRequest").ofType(MavenExecutionRequest.class).in(mavenEmbedder).get();
+      applyThreadConfiguration(mavenRequest, executionRequest);
+      applyOfflineMode(mavenRequest, executionRequest);
+      executionRequest.setExecutionListener(timer);
+    } catch (ReflectionError e) {
+      throw new MavenEmbedderException(e);
+    }
+  }
+
+  /**
+   * same interpretation as the -T option of the command line, "4" means 4 threads and "1.5C" 1.5 threads per core
+   */
+  static void applyThreadConfiguration(final MavenRequest request, final MavenExecutionRequest executionRequest) {
+    String threadCount = request.getThreadCount();
+    if (threadCount != null) {
+      executionRequest.setPerCoreThreadCount(threadCount.endsWith(PER_CORE_SUFFIX));
+      executionRequest.setThreadCount(threadCount.replace(PER_CORE_SUFFIX, ""));
+    }
+  }
+
+  static void applyOfflineMode(final MavenRequest request, final MavenExecutionRequest executionRequest) {
+    if (request.isOffline()) {
+      executionRequest.setOffline(true);
+    }
+  }
+
   public static MavenSonarEmbedderBuilder configure() {
     return new MavenSonarEmbedderBuilder();
   }
@@ -67,10 +160,15 @@ public class Maven3SonarEmbedder {
     public static final int MIN_LOG_LEVEL = 0;
     public static final int MAX_LOG_LEVEL = 5;
     private String pom = "pom.xml"; // default
-    private String mavenGoal = null;
+    private final List<String> mavenGoals = Lists.newArrayList();
     private File mavenHome = null;
     private int mavenLogLevel = org.codehaus.plexus.logging.Logger.LEVEL_ERROR;
     private boolean mavenShowErrors;
+    private MavenEmbedderPool pool;
+    private String threadCount;
+    private boolean offline;
+    private File localRepository;
+    private File localMirror;
 
     public MavenSonarEmbedderBuilder usePomFile(final String pomFile) {
       checkNotNull(pomFile);
@@ -78,9 +176,22 @@ public class Maven3SonarEmbedder {
       return this;
     }
 
+    /**
+     * adds a goal, all goals are executed in the given order within one request, so the reactor is built only once
+     */
     public MavenSonarEmbedderBuilder goal(final String goal) {
       checkNotNull(goal);
-      this.mavenGoal = goal;
+      this.mavenGoals.add(goal);
+      return this;
+    }
+
+    /**
+     * @see #goal(String)
+     */
+    public MavenSonarEmbedderBuilder goals(final String... goals) {
+      for (String goal : goals) {
+        goal(goal);
+      }
       return this;
     }
 
@@ -146,6 +257,69 @@ public class Maven3SonarEmbedder {
       return null;
     }
 
+    /**
+     * runs with an embedder leased from the pool instead of booting a new one
+     *
+     * @see MavenEmbedderPool#getDefault()
+     */
+    public MavenSonarEmbedderBuilder usePool(final MavenEmbedderPool pool) {
+      checkNotNull(pool);
+      this.pool = pool;
+      return this;
+    }
+
+    /**
+     * builds the reactor modules in parallel with a fixed number of threads, like -T 4
+     * <p/>
+     * the bridge mojos of all modules would write into the same result transfer handler of their sensor, so a parallel
+     * build of several modules fails as soon as it configures a bridge mojo; sonar analyses one module per run
+     */
+    public MavenSonarEmbedderBuilder threads(final int threads) {
+      checkArgument(threads > 0, "threads must be positive, but was %s", threads);
+      this.threadCount = String.valueOf(threads);
+      return this;
+    }
+
+    /**
+     * builds the reactor modules in parallel with a number of threads per available core, like -T 1.5C
+     */
+    public MavenSonarEmbedderBuilder threadsPerCore(final float threadsPerCore) {
+      checkArgument(threadsPerCore > 0, "threadsPerCore must be positive, but was %s", threadsPerCore);
+      this.threadCount = threadsPerCore + PER_CORE_SUFFIX;
+      return this;
+    }
+
+    /**
+     * resolves artifacts and version metadata only from the local repository and the local mirror, no remote
+     * repository is asked
+     *
+     * @see #useLocalRepository(File)
+     * @see #useLocalMirror(File)
+     */
+    public MavenSonarEmbedderBuilder offline(final boolean offline) {
+      this.offline = offline;
+      return this;
+    }
+
+    /**
+     * overrides the local repository of the settings
+     */
+    public MavenSonarEmbedderBuilder useLocalRepository(final File localRepository) {
+      checkNotNull(localRepository);
+      this.localRepository = localRepository;
+      return this;
+    }
+
+    /**
+     * additionally resolves from a directory in repository layout, e.g. a mirror synchronized onto the build agent
+     */
+    public MavenSonarEmbedderBuilder useLocalMirror(final File mirrorDirectory) {
+      checkNotNull(mirrorDirectory);
+      checkArgument(mirrorDirectory.isDirectory(), "local mirror " + mirrorDirectory + " is not a directory");
+      this.localMirror = mirrorDirectory;
+      return this;
+    }
+
     public MavenSonarEmbedderBuilder showErrors(final boolean showErrors) {
       this.mavenShowErrors = showErrors;
       return this;
@@ -154,14 +328,25 @@ public class Maven3SonarEmbedder {
     public Maven3SonarEmbedder build() throws MavenEmbedderException {
       checkNotNull(pom, "missing pom");
 
-      checkNotNull(mavenGoal, "missing mavenGoal");
-      checkState(mavenGoal.length() > 0, "mavenGoal is empty");
+      checkNotNull(Iterables.getFirst(mavenGoals, null), "missing mavenGoal");
+      for (String mavenGoal : mavenGoals) {
+        checkState(mavenGoal.length() > 0, "mavenGoal is empty");
+      }
 
       MavenRequest mavenRequest = new MavenRequest();
       mavenRequest.setPom(pom);
       mavenRequest.setShowErrors(mavenShowErrors);
-      mavenRequest.setGoals(Arrays.asList(mavenGoal));
+      mavenRequest.setGoals(ImmutableList.copyOf(mavenGoals));
       mavenRequest.setLoggingLevel(mavenLogLevel);
+      mavenRequest.setThreadCount(threadCount);
+      mavenRequest.setOffline(offline);
+      if (localRepository != null) {
+        mavenRequest.setLocalRepositoryPath(localRepository.getAbsolutePath());
+      }
+      if (localMirror != null) {
+        mavenRequest.setWorkspaceReader(new LocalMirrorWorkspaceReader(localMirror));
+        mavenRequest.getUserProperties().setProperty(LOCAL_MIRROR_PROPERTY, localMirror.getAbsolutePath());
+      }
       mavenRequest.setMavenLoggerManager(new MavenLoggerManager(new PlexusSlf4JLogger(log)));
       detectMavenHomeIfNull();
 
@@ -174,8 +359,14 @@ public class Maven3SonarEmbedder {
         throw new MavenEmbedderException(e2);
       }
 
+      if (pool != null) {
+        return new Maven3SonarEmbedder(null, mavenRequest, pool, mavenHome);
+      }
+      long bootStart = System.nanoTime();
       final MavenEmbedder embedder = new MavenEmbedder(mavenHome, mavenRequest);
-      return new Maven3SonarEmbedder(embedder, mavenRequest);
+      Maven3SonarEmbedder sonarEmbedder = new Maven3SonarEmbedder(embedder, mavenRequest, null, mavenHome);
+      sonarEmbedder.unreportedBootNanos = System.nanoTime() - bootStart;
+      return sonarEmbedder;
     }
   }
 }
@@ -91,7 +91,7 @@ public abstract class MavenBaseSensor<T extends ResultTransferHandler> implement
 
     if (isActivated) {
       if (isMaven3) {
-        MavenPluginExecutorProxyInjection.inject(mavenPluginExecutor, getClass().getClassLoader(), mojoMapper);
+        injectMojoMapper();
       } else {
         MavenBaseSensor.log.warn("this plugin is incompatible with maven2, run again with maven3");
       }
@@ -100,6 +100,13 @@ public abstract class MavenBaseSensor<T extends ResultTransferHandler> implement
     return isActivated && isMaven3;
   }
 
+  /**
+   * makes the bridge mojo of this sensor known to the maven execution
+   */
+  protected void injectMojoMapper() {
+    MavenPluginExecutorProxyInjection.inject(mavenPluginExecutor, getClass().getClassLoader(), mojoMapper);
+  }
+
   protected boolean checkIfAtLeastOneRuleIsEnabled() {
     List<Rule> associatedRules = getAssociatedRules();
     for (ActiveRule activeRule : rulesProfile.getActiveRules()) {
@@ -0,0 +1,209 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven;
+
+import com.google.common.collect.Maps;
+import de.lgohlke.sonar.maven.internals.PlexusSlf4JLogger;
+import hudson.maven.MavenEmbedder;
+import hudson.maven.MavenEmbedderException;
+import hudson.maven.MavenRequest;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.maven.cli.MavenLoggerManager;
+import org.codehaus.plexus.PlexusContainer;
+import org.fest.reflect.exception.ReflectionError;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.fest.reflect.core.Reflection.field;
+import static org.fest.reflect.core.Reflection.method;
+
+/**
+ * keeps booted {@link MavenEmbedder}s for reuse, so repeated runs in the same JVM skip the plexus container startup,
+ * the m2.conf scan and the realm setup
+ * <p/>
+ * embedders are keyed by maven home and log level, both are fixed when the container boots; an embedder is leased
+ * exclusively and has to be released after the run
+ *
+ * @author Lars Gohlke
+ */
+@Slf4j
+public class MavenEmbedderPool {
+  public static final int DEFAULT_MAX_IDLE = 2;
+
+  interface EmbedderFactory {
+    MavenEmbedder create(File mavenHome, int logLevel) throws MavenEmbedderException;
+  }
+
+  private static final EmbedderFactory BOOTING_FACTORY = new EmbedderFactory() {
+    @Override
+    public MavenEmbedder create(File mavenHome, int logLevel) throws MavenEmbedderException {
+      MavenRequest bootRequest = new MavenRequest();
+      bootRequest.setLoggingLevel(logLevel);
+      bootRequest.setMavenLoggerManager(new MavenLoggerManager(new PlexusSlf4JLogger(LoggerFactory.getLogger(Maven3SonarEmbedder.class))));
+      return new MavenEmbedder(mavenHome, bootRequest);
+    }
+  };
+
+  private static final MavenEmbedderPool DEFAULT = new MavenEmbedderPool(DEFAULT_MAX_IDLE);
+
+  private final ConcurrentMap<List<Object>, BlockingQueue<MavenEmbedder>> idleEmbedders = Maps.newConcurrentMap();
+  @Getter
+  private final int maxIdlePerKey;
+  private final EmbedderFactory factory;
+
+  public MavenEmbedderPool(int maxIdlePerKey) {
+    this(maxIdlePerKey, BOOTING_FACTORY);
+  }
+
+  MavenEmbedderPool(int maxIdlePerKey, EmbedderFactory factory) {
+    checkArgument(maxIdlePerKey > 0, "maxIdlePerKey must be positive");
+    this.maxIdlePerKey = maxIdlePerKey;
+    this.factory = checkNotNull(factory);
+  }
+
+  /**
+   * the pool shared by all runs of this JVM
+   */
+  public static MavenEmbedderPool getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * @return an idle embedder or a newly booted one
+   */
+  public MavenEmbedder lease(File mavenHome, int logLevel) throws MavenEmbedderException {
+    MavenEmbedder embedder = getQueue(mavenHome, logLevel).poll();
+    if (embedder == null) {
+      log.debug("booting maven embedder for {} with log level {}", mavenHome, logLevel);
+      return factory.create(mavenHome, logLevel);
+    }
+    log.debug("reusing maven embedder for {} with log level {}", mavenHome, logLevel);
+    return embedder;
+  }
+
+  /**
+   * {@link MavenEmbedder#execute(MavenRequest)} ignores its argument and runs the request the embedder was booted with,
+   * so the leased embedder is rebound to the given request
+   *
+   * @return an idle embedder or a newly booted one, ready to execute the request
+   */
+  public MavenEmbedder lease(File mavenHome, MavenRequest request) throws MavenEmbedderException {
+    MavenEmbedder embedder = lease(mavenHome, request.getLoggingLevel());
+    try {
+      bind(embedder, request);
+    } catch (MavenEmbedderException e) {
+      dispose(embedder);
+      throw e;
+    }
+    return embedder;
+  }
+
+  static void bind(MavenEmbedder embedder, MavenRequest request) throws MavenEmbedderException {
+    if (embedder.getMavenRequest() == request) {
+      return;
+    }
+    try {
+      field("mavenRequest").ofType(MavenRequest.class).in(embedder).set(request);
+      method("buildMavenExecutionRequest").in(embedder).invoke();
+    } catch (ReflectionError e) {
+      throw new MavenEmbedderException(e);
+    }
+  }
+
+  /**
+   * returns the embedder to the pool, it is disposed if there are already {@link #getMaxIdlePerKey()} idle embedders
+   */
+  public void release(File mavenHome, int logLevel, MavenEmbedder embedder) {
+    checkNotNull(embedder);
+    if (!getQueue(mavenHome, logLevel).offer(embedder)) {
+      log.debug("disposing maven embedder for {}, pool is full", mavenHome);
+      dispose(embedder);
+    }
+  }
+
+  /**
+   * stops the plexus container of the embedder, it must not be used afterwards
+   */
+  static void dispose(MavenEmbedder embedder) {
+    PlexusContainer container = field("plexusContainer").ofType(PlexusContainer.class).in(embedder).get();
+    if (container != null) {
+      container.dispose();
+    }
+  }
+
+  /**
+   * boots embedders up to {@link #getMaxIdlePerKey()} idle ones ahead of the runs
+   */
+  public void prestart(File mavenHome, int logLevel) throws MavenEmbedderException {
+    BlockingQueue<MavenEmbedder> queue = getQueue(mavenHome, logLevel);
+    while (queue.remainingCapacity() > 0) {
+      if (!queue.offer(factory.create(mavenHome, logLevel))) {
+        break;
+      }
+    }
+  }
+
+  public int getIdleCount(File mavenHome, int logLevel) {
+    return getQueue(mavenHome, logLevel).size();
+  }
+
+  /**
+   * disposes all idle embedders
+   */
+  public void clear() {
+    for (BlockingQueue<MavenEmbedder> queue : idleEmbedders.values()) {
+      for (MavenEmbedder embedder = queue.poll(); embedder != null; embedder = queue.poll()) {
+        dispose(embedder);
+      }
+    }
+  }
+
+  private BlockingQueue<MavenEmbedder> getQueue(File mavenHome, int logLevel) {
+    List<Object> key = Arrays.<Object>asList(canonicalPath(mavenHome), logLevel);
+    BlockingQueue<MavenEmbedder> queue = idleEmbedders.get(key);
+    if (queue == null) {
+      BlockingQueue<MavenEmbedder> created = new ArrayBlockingQueue<MavenEmbedder>(maxIdlePerKey);
+      queue = idleEmbedders.putIfAbsent(key, created);
+      if (queue == null) {
+        queue = created;
+      }
+    }
+    return queue;
+  }
+
+  private static String canonicalPath(File mavenHome) {
+    checkNotNull(mavenHome);
+    try {
+      return mavenHome.getCanonicalPath();
+    } catch (IOException e) {
+      return mavenHome.getAbsolutePath();
+    }
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import lombok.Getter;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * timings of an embedded maven run, broken down by phase
+ * <p/>
+ * with a parallel reactor the phases of the modules overlap, their durations are summed up over all modules and may
+ * exceed the total duration
+ *
+ * @author Lars Gohlke
+ */
+public final class MavenRunResult {
+  public enum Phase {
+    CONTAINER_BOOT("container boot"),
+    PROJECT_BUILDING("project building"),
+    PLUGIN_SETUP("plugin realm setup"),
+    MOJO_EXECUTION("mojo execution"),
+    /**
+     * from the end of the last mojo until maven returns, the bridge mojos hand their results over while they execute
+     */
+    SESSION_END("session end");
+
+    @Getter
+    private final String label;
+
+    Phase(String label) {
+      this.label = label;
+    }
+  }
+
+  private final Map<Phase, Long> durations;
+  /**
+   * wall clock duration of the run in milliseconds
+   */
+  @Getter
+  private final long totalDuration;
+
+  MavenRunResult(final Map<Phase, Long> durations, final long totalDuration) {
+    this.durations = Maps.newEnumMap(Phase.class);
+    for (Phase phase : Phase.values()) {
+      Long duration = durations.get(phase);
+      this.durations.put(phase, duration == null ? 0L : duration);
+    }
+    this.totalDuration = totalDuration;
+  }
+
+  /**
+   * @return duration of the phase in milliseconds
+   */
+  public long getDuration(final Phase phase) {
+    return durations.get(phase);
+  }
+
+  public Map<Phase, Long> getDurations() {
+    return new EnumMap<Phase, Long>(durations);
+  }
+
+  @Override
+  public String toString() {
+    List<String> parts = Lists.newArrayList();
+    for (Map.Entry<Phase, Long> entry : durations.entrySet()) {
+      parts.add(entry.getKey().getLabel() + " " + entry.getValue() + " ms");
+    }
+    return "total " + totalDuration + " ms (" + Joiner.on(", ").join(parts) + ")";
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven;
+
+import com.google.common.base.Ticker;
+import de.lgohlke.sonar.maven.MavenRunResult.Phase;
+import org.apache.maven.execution.AbstractExecutionListener;
+import org.apache.maven.execution.ExecutionEvent;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * collects the phase timings of an embedded maven run from the execution events
+ * <p/>
+ * events of a parallel reactor arrive on several threads, so the start of a project and of a mojo are kept per thread
+ * <ul>
+ * <li>project building: from the project discovery until the session starts</li>
+ * <li>plugin realm setup: from the start of a project until its first mojo starts</li>
+ * <li>mojo execution: from the start until the end of a mojo, forked mojos are part of the mojo forking them</li>
+ * </ul>
+ * container boot and session end are measured by the embedder around the execution
+ *
+ * @author Lars Gohlke
+ */
+class PhaseTimer extends AbstractExecutionListener {
+  private static final long NOT_SET = -1;
+
+  private final Ticker ticker;
+  private final AtomicLongArray nanos = new AtomicLongArray(Phase.values().length);
+  private final AtomicLong discoveryStart = new AtomicLong(NOT_SET);
+  private final AtomicLong lastMojoEnd = new AtomicLong(NOT_SET);
+  private final ThreadLocal<Long> projectStart = new ThreadLocal<Long>();
+  private final ThreadLocal<long[]> mojoStartAndDepth = new ThreadLocal<long[]>() {
+    @Override
+    protected long[] initialValue() {
+      return new long[2];
+    }
+  };
+
+  PhaseTimer(final Ticker ticker) {
+    this.ticker = checkNotNull(ticker);
+  }
+
+  long read() {
+    return ticker.read();
+  }
+
+  void add(final Phase phase, final long durationNanos) {
+    nanos.addAndGet(phase.ordinal(), durationNanos);
+  }
+
+  void addSince(final Phase phase, final long startNanos) {
+    add(phase, read() - startNanos);
+  }
+
+  /**
+   * @return the end of the last mojo or the given default if no mojo ran
+   */
+  long getLastMojoEnd(final long defaultNanos) {
+    long end = lastMojoEnd.get();
+    return end == NOT_SET ? defaultNanos : end;
+  }
+
+  MavenRunResult toResult(final long totalNanos) {
+    Map<Phase, Long> durations = new EnumMap<Phase, Long>(Phase.class);
+    for (Phase phase : Phase.values()) {
+      durations.put(phase, TimeUnit.NANOSECONDS.toMillis(nanos.get(phase.ordinal())));
+    }
+    return new MavenRunResult(durations, TimeUnit.NANOSECONDS.toMillis(totalNanos));
+  }
+
+  @Override
+  public void projectDiscoveryStarted(final ExecutionEvent event) {
+    discoveryStart.set(read());
+  }
+
+  @Override
+  public void sessionStarted(final ExecutionEvent event) {
+    long start = discoveryStart.getAndSet(NOT_SET);
+    if (start != NOT_SET) {
+      addSince(Phase.PROJECT_BUILDING, start);
+    }
+  }
+
+  @Override
+  public void projectStarted(final ExecutionEvent event) {
+    projectStart.set(read());
+  }
+
+  @Override
+  public void mojoStarted(final ExecutionEvent event) {
+    long now = read();
+    Long start = projectStart.get();
+    if (start != null) {
+      add(Phase.PLUGIN_SETUP, now - start);
+      projectStart.remove();
+    }
+    long[] mojo = mojoStartAndDepth.get();
+    if (mojo[1]++ == 0) {
+      mojo[0] = now;
+    }
+  }
+
+  @Override
+  public void mojoSucceeded(final ExecutionEvent event) {
+    mojoEnded();
+  }
+
+  @Override
+  public void mojoFailed(final ExecutionEvent event) {
+    mojoEnded();
+  }
+
+  private void mojoEnded() {
+    long[] mojo = mojoStartAndDepth.get();
+    if (mojo[1] > 0 && --mojo[1] == 0) {
+      long now = read();
+      add(Phase.MOJO_EXECUTION, now - mojo[0]);
+      updateLastMojoEnd(now);
+    }
+  }
+
+  private void updateLastMojoEnd(final long now) {
+    long last = lastMojoEnd.get();
+    while ((last == NOT_SET || now > last) && !lastMojoEnd.compareAndSet(last, now)) {
+      last = lastMojoEnd.get();
+    }
+  }
+}
@@ -19,7 +19,11 @@
  */
 package de.lgohlke.sonar.maven.internals;
 
+import de.lgohlke.sonar.maven.BridgeMojo;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.MavenPluginManager;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.plugin.PluginConfigurationException;
 import org.fest.reflect.exception.ReflectionError;
 
 import java.lang.reflect.InvocationTargetException;
@@ -36,18 +40,36 @@ public class MavenPluginManagerProxy<T extends MavenPluginManager> extends Dynam
 
   /**
    * see  MavenPluginManager#setupPluginRealm(PluginDescriptor, MavenSession, ClassLoader, List, DependencyFilter)
+   * <p/>
+   * a bridge mojo gets the one result transfer handler of its sensor injected, so bridge mojos of several modules built
+   * at the same time would write into the same handler; see MavenPluginManager#getConfiguredMojo(Class, MavenSession,
+   * MojoExecution)
    */
   @Override
-  public Object invoke(final Object proxy, final Method method, final Object[] args) {
+  public Object invoke(final Object proxy, final Method method, final Object[] args) throws PluginConfigurationException {
     if (method.getName().equals("setupPluginRealm")) {
       args[2] = classloader;
     }
+    Object result;
     try {
-      return method.invoke(getUnderLying(), args);
+      result = method.invoke(getUnderLying(), args);
     } catch (IllegalAccessException e) {
       throw new ReflectionError(e.getMessage(), e);
     } catch (InvocationTargetException e) {
       throw new ReflectionError(e.getMessage(), e);
     }
+    if (method.getName().equals("getConfiguredMojo") && result instanceof BridgeMojo) {
+      checkSingleModuleOrSequential((MavenSession) args[1], (MojoExecution) args[2]);
+    }
+    return result;
+  }
+
+  private static void checkSingleModuleOrSequential(final MavenSession session, final MojoExecution mojoExecution)
+      throws PluginConfigurationException {
+    if (session.isParallel() && session.getProjects().size() > 1) {
+      throw new PluginConfigurationException(mojoExecution.getMojoDescriptor().getPluginDescriptor(),
+          "the goal " + mojoExecution.getGoal() + " reports its results to a single sensor and can not run in a parallel " +
+              "build of " + session.getProjects().size() + " modules, build the reactor with one thread");
+    }
   }
 }
@@ -19,7 +19,7 @@
  */
 package de.lgohlke.sonar.maven.internals;
 
-import com.google.common.collect.Sets;
+import com.google.common.collect.Maps;
 import de.lgohlke.sonar.maven.BridgeMojo;
 import de.lgohlke.sonar.maven.BridgeMojoMapperException;
 import org.apache.maven.plugin.descriptor.MojoDescriptor;
@@ -28,23 +28,25 @@ import org.fest.reflect.exception.ReflectionError;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 
 import static org.fest.reflect.core.Reflection.field;
 
 
+/**
+ * lookups run concurrently when the reactor is built in parallel, so an injection is replaced in a single step and a
+ * lookup always sees either the old or the new one
+ */
 public class PlexusContainerProxy<T extends PlexusContainer> extends DynamicProxy<T> {
-  private Set<MojoInjection> injections = Sets.newHashSet();
+  private final ConcurrentMap<Class<?>, MojoInjection> injections = Maps.newConcurrentMap();
 
   public PlexusContainerProxy(final T underlying) {
     super(underlying);
   }
 
   public void addInjection(MojoInjection injection) {
-    if (injections.contains(injection)) {
-      injections.remove(injection);
-    }
-    injections.add(injection);
+    // replaces an injection for the same bridge mojo, it carries the handler of the current sensor
+    injections.put(injection.getBridgeMojoClass(), injection);
   }
 
   @Override
@@ -71,7 +73,12 @@ public class PlexusContainerProxy<T extends PlexusContainer> extends DynamicProx
   }
 
   private void checkMojoInstance(Object result) throws BridgeMojoMapperException {
-    for (MojoInjection injection : injections) {
+    MojoInjection exactMatch = injections.get(result.getClass());
+    if (exactMatch != null) {
+      exactMatch.setTransferHandler((BridgeMojo<?>) result);
+      return;
+    }
+    for (MojoInjection injection : injections.values()) {
       if (injection.getBridgeMojoClass().isAssignableFrom(result.getClass())) {
         injection.setTransferHandler((BridgeMojo<?>) result);
         return; // dont iterate further after already matched goal
@@ -80,7 +87,7 @@ public class PlexusContainerProxy<T extends PlexusContainer> extends DynamicProx
   }
 
   private void checkGoal(MojoDescriptor descriptor) {
-    for (MojoInjection injection : injections) {
+    for (MojoInjection injection : injections.values()) {
       if (injection.getGoal().equals(descriptor.getGoal())) {
         Class<?> bridgeMojoClass = injection.getBridgeMojoClass();
         field("implementation").ofType(String.class).in(descriptor).set(bridgeMojoClass.getCanonicalName());
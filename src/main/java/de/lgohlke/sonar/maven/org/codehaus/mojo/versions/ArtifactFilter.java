@@ -19,14 +19,16 @@
  */
 package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
 
-import com.google.common.base.Joiner;
 import com.google.common.collect.Lists;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.maven.model.Dependency;
 import org.fest.util.Preconditions;
 
 import java.util.List;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 /**
  * User: lars
  */
@@ -36,8 +38,11 @@ public class ArtifactFilter {
   private final List<String> whitelistRegexList = Lists.newArrayList();
   @Getter
   private final List<String> blacklistRegexList = Lists.newArrayList();
-  private String whitelistRegex;
-  private String blacklistRegex;
+  @Getter
+  private boolean automatonEnabled = true;
+  @Getter
+  private int decisionCacheSize;
+  private ArtifactFilterSnapshot snapshot;
 
   public ArtifactFilter() {
   }
@@ -51,39 +56,78 @@ public class ArtifactFilter {
     addBlacklistRegex(blackListRegex);
   }
 
+  public boolean acceptArtifact(ArtifactUpdate update) {
+    Dependency dependency = update.getDependency();
+    return acceptArtifact(dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion(), String.valueOf(update.getArtifactVersion()));
+  }
+
+  /**
+   * matches the rules against <tt>groupId:artifactId:version has newer version available: candidateVersion</tt>
+   * like {@link #acceptArtifact(String)} on {@link ArtifactUpdate#toString()}, without building that string
+   */
+  public boolean acceptArtifact(String groupId, String artifactId, String version, String candidateVersion) {
+    return snapshot().acceptArtifact(groupId, artifactId, version, candidateVersion);
+  }
+
   public boolean acceptArtifact(String groupIdArtifactIdVersion) {
-    buildRegexIfNeeded();
+    return snapshot().acceptArtifact(groupIdArtifactIdVersion);
+  }
 
-    boolean whitelistMatches = groupIdArtifactIdVersion.matches(whitelistRegex);
-    boolean blacklistMatches = groupIdArtifactIdVersion.matches(blacklistRegex);
+  /**
+   * the rules are compiled only after the lists have changed, not for each artifact
+   *
+   * @return the immutable state of this filter, safe to be shared between threads
+   */
+  public ArtifactFilterSnapshot snapshot() {
+    if (snapshot == null) {
+      ArtifactFilterSnapshot.Builder builder = ArtifactFilterSnapshot.builder()
+          .automatonEnabled(automatonEnabled)
+          .decisionCacheSize(decisionCacheSize);
+      for (String regex : whitelistRegexList) {
+        builder.addWhitelistRegex(regex);
+      }
+      for (String regex : blacklistRegexList) {
+        builder.addBlacklistRegex(regex);
+      }
+      snapshot = builder.build();
+    }
+    return snapshot;
+  }
 
-    log.debug("testing \"{}\"", groupIdArtifactIdVersion);
-    log.debug("\t whitelist regex: \"{}\"", whitelistRegex);
-    log.debug("\t matches whitelist: {}", whitelistMatches);
-    log.debug("\t blacklist regex: \"{}\"", blacklistRegex);
-    log.debug("\t matches blacklist: {}", blacklistMatches);
+  /**
+   * match the rules with combined automata instead of the jdk regex engine where possible, enabled by default
+   *
+   * @see RegexAutomaton
+   */
+  public final ArtifactFilter setAutomatonEnabled(boolean automatonEnabled) {
+    this.automatonEnabled = automatonEnabled;
+    snapshot = null;
+    return this;
+  }
 
-    return whitelistMatches && !blacklistMatches;
+  /**
+   * remembers the decisions for the last <tt>maximumSize</tt> coordinates, <tt>0</tt> disables the cache
+   */
+  public final ArtifactFilter setDecisionCacheSize(int maximumSize) {
+    checkArgument(maximumSize >= 0, "maximumSize must not be negative");
+    decisionCacheSize = maximumSize;
+    snapshot = null;
+    return this;
   }
 
-  private void buildRegexIfNeeded() {
-    if (whitelistRegex == null) {
-      whitelistRegex = buildRegex(whitelistRegexList);
-    }
-    if (blacklistRegex == null) {
-      blacklistRegex = buildRegex(blacklistRegexList);
-    }
+  public long getDecisionCacheHitCount() {
+    return snapshot == null ? 0 : snapshot.getDecisionCacheHitCount();
   }
 
-  private String buildRegex(List<String> regexList) {
-    return regexList.isEmpty() ? "" : "(" + Joiner.on(")|(").join(regexList) + ")";
+  public long getDecisionCacheMissCount() {
+    return snapshot == null ? 0 : snapshot.getDecisionCacheMissCount();
   }
 
   public final ArtifactFilter addWhitelistRegex(String regex) {
     Preconditions.checkNotNullOrEmpty(regex);
     log.debug("adding whitelist regex {}", regex);
     whitelistRegexList.add(regex);
-    whitelistRegex = null;
+    snapshot = null;
     return this;
   }
 
@@ -91,17 +135,16 @@ public class ArtifactFilter {
     Preconditions.checkNotNullOrEmpty(regex);
     log.debug("adding blacklist regex {}", regex);
     blacklistRegexList.add(regex);
-    blacklistRegex = null;
+    snapshot = null;
     return this;
   }
 
   public String toString() {
-    buildRegexIfNeeded();
     StringBuilder builder = new StringBuilder();
 
     builder.append(getClass().getSimpleName()).append("{\n")
-        .append("\t whitelist : ").append(whitelistRegex).append("\n")
-        .append("\t blacklist : ").append(blacklistRegex).append("\n}");
+        .append("\t whitelist : ").append(ArtifactFilterSnapshot.buildRegex(whitelistRegexList)).append("\n")
+        .append("\t blacklist : ").append(ArtifactFilterSnapshot.buildRegex(blacklistRegexList)).append("\n}");
     return builder.toString();
   }
 }
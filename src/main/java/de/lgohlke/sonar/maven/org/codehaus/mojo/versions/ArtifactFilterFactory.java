@@ -19,7 +19,6 @@
  */
 package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
 
-import com.thoughtworks.xstream.XStream;
 import lombok.extern.slf4j.Slf4j;
 import org.sonar.api.config.PropertyDefinition;
 import org.sonar.api.config.Settings;
@@ -52,11 +51,7 @@ public class ArtifactFilterFactory {
       PropertyDefinition definition = settings.getDefinitions().get(blacklistKey);
       blackListRegex = definition.getDefaultValue();
 
-      XStream xstream = new XStream();
-      xstream.setClassLoader(ArtifactFilterFactory.class.getClassLoader());
-      String xml = xstream.toXML(definition);
-
-      log.debug("blacklist definition {} ",xml );
+      log.debug("blacklist {} not set, using its default \"{}\"", blacklistKey, blackListRegex);
     }
 
     if (blackListRegex.length() > 0) {
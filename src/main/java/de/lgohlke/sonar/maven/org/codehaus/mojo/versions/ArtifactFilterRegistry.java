@@ -0,0 +1,85 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import com.google.common.collect.Maps;
+import de.lgohlke.sonar.MavenPlugin;
+import lombok.extern.slf4j.Slf4j;
+import org.sonar.api.BatchExtension;
+import org.sonar.api.batch.InstantiationStrategy;
+import org.sonar.api.config.Settings;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * shares one compiled {@link ArtifactFilterSnapshot} per distinct configuration between all sensors and modules of a batch,
+ * the configuration being the whitelist/blacklist settings, the rule params and the filter options
+ * <p/>
+ * the snapshots are immutable, so modules may be analysed in parallel
+ *
+ * @author Lars Gohlke
+ */
+@Slf4j
+@InstantiationStrategy(InstantiationStrategy.PER_BATCH)
+public class ArtifactFilterRegistry implements BatchExtension {
+  private final ConcurrentMap<List<Object>, ArtifactFilterSnapshot> filters = Maps.newConcurrentMap();
+
+  /**
+   * @see ArtifactFilterFactory#createFilterFromSettings(Settings, String, String)
+   * @see ArtifactFilterFactory#createFilterFromMap(Map, String, String)
+   */
+  public ArtifactFilterSnapshot getFilter(Settings settings, String whitelistKey, String blacklistKey,
+                                  Map<String, String> ruleParams, String ruleWhitelistKey, String ruleBlacklistKey) {
+    String automaton = settings.getString(MavenPlugin.FILTER_AUTOMATON);
+    boolean automatonEnabled = automaton == null || Boolean.parseBoolean(automaton);
+    int decisionCacheSize = settings.getInt(MavenPlugin.FILTER_CACHE_SIZE);
+
+    List<Object> key = Arrays.<Object>asList(
+        whitelistKey, settings.getString(whitelistKey),
+        blacklistKey, settings.getString(blacklistKey),
+        ruleParams.get(ruleWhitelistKey), ruleParams.get(ruleBlacklistKey),
+        automatonEnabled, decisionCacheSize);
+
+    ArtifactFilterSnapshot filter = filters.get(key);
+    if (filter == null) {
+      ArtifactFilter filterFromRules = ArtifactFilterFactory.createFilterFromMap(ruleParams, ruleWhitelistKey, ruleBlacklistKey);
+      ArtifactFilter filterFromSettings = ArtifactFilterFactory.createFilterFromSettings(settings, whitelistKey, blacklistKey);
+
+      ArtifactFilterSnapshot created = ArtifactFilterFactory.createFilterFromMerge(filterFromSettings, filterFromRules)
+          .setAutomatonEnabled(automatonEnabled)
+          .setDecisionCacheSize(decisionCacheSize)
+          .snapshot();
+
+      filter = filters.putIfAbsent(key, created);
+      if (filter == null) {
+        log.debug("registered filter #{}: {}", filters.size(), created);
+        filter = created;
+      }
+    }
+    return filter;
+  }
+
+  public int size() {
+    return filters.size();
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.maven.model.Dependency;
+import org.fest.util.Preconditions;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * immutable and precompiled version of an {@link ArtifactFilter}, it can be shared between threads
+ * <p/>
+ * matching takes no locks and the optional decision cache is striped; each thread reuses its own
+ * {@link CoordinatesSequence}, so a cache hit allocates nothing
+ *
+ * @author Lars Gohlke
+ */
+@Slf4j
+public final class ArtifactFilterSnapshot {
+  private static final ThreadLocal<CoordinatesSequence> COORDINATES = new ThreadLocal<CoordinatesSequence>() {
+    @Override
+    protected CoordinatesSequence initialValue() {
+      return new CoordinatesSequence();
+    }
+  };
+
+  @Getter
+  private final List<String> whitelistRegexList;
+  @Getter
+  private final List<String> blacklistRegexList;
+  @Getter
+  private final boolean automatonEnabled;
+  private final CompiledRules whitelistRules;
+  private final CompiledRules blacklistRules;
+  private final DecisionCache decisionCache;
+
+  private ArtifactFilterSnapshot(Builder builder) {
+    whitelistRegexList = builder.whitelistRegexList.build();
+    blacklistRegexList = builder.blacklistRegexList.build();
+    automatonEnabled = builder.automatonEnabled;
+    whitelistRules = new CompiledRules(whitelistRegexList, automatonEnabled);
+    blacklistRules = new CompiledRules(blacklistRegexList, automatonEnabled);
+    decisionCache = builder.decisionCacheSize > 0 ? new DecisionCache(builder.decisionCacheSize) : null;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public boolean acceptArtifact(ArtifactUpdate update) {
+    Dependency dependency = update.getDependency();
+    return acceptArtifact(dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion(), String.valueOf(update.getArtifactVersion()));
+  }
+
+  /**
+   * @see ArtifactFilter#acceptArtifact(String, String, String, String)
+   */
+  public boolean acceptArtifact(String groupId, String artifactId, String version, String candidateVersion) {
+    return accept(COORDINATES.get().reset(groupId, artifactId, version, candidateVersion));
+  }
+
+  public boolean acceptArtifact(String groupIdArtifactIdVersion) {
+    return accept(COORDINATES.get().reset(groupIdArtifactIdVersion));
+  }
+
+  private boolean accept(CoordinatesSequence coordinates) {
+    if (decisionCache == null) {
+      return evaluate(coordinates);
+    }
+
+    Boolean decision = decisionCache.get(coordinates);
+    if (decision == null) {
+      decision = evaluate(coordinates);
+      decisionCache.put(coordinates, decision);
+    }
+    return decision;
+  }
+
+  private boolean evaluate(CharSequence groupIdArtifactIdVersion) {
+    boolean whitelistMatches = whitelistRules.matches(groupIdArtifactIdVersion);
+    boolean blacklistMatches = blacklistRules.matches(groupIdArtifactIdVersion);
+
+    log.debug("testing \"{}\"", groupIdArtifactIdVersion);
+    log.debug("\t whitelist regex: \"{}\"", whitelistRegexList);
+    log.debug("\t matches whitelist: {}", whitelistMatches);
+    log.debug("\t blacklist regex: \"{}\"", blacklistRegexList);
+    log.debug("\t matches blacklist: {}", blacklistMatches);
+
+    return whitelistMatches && !blacklistMatches;
+  }
+
+  public long getDecisionCacheHitCount() {
+    return decisionCache == null ? 0 : decisionCache.getHitCount();
+  }
+
+  public long getDecisionCacheMissCount() {
+    return decisionCache == null ? 0 : decisionCache.getMissCount();
+  }
+
+  static String buildRegex(List<String> regexList) {
+    return regexList.isEmpty() ? "" : "(" + Joiner.on(")|(").join(regexList) + ")";
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+
+    builder.append(getClass().getSimpleName()).append("{\n")
+        .append("\t whitelist : ").append(buildRegex(whitelistRegexList)).append("\n")
+        .append("\t blacklist : ").append(buildRegex(blacklistRegexList)).append("\n}");
+    return builder.toString();
+  }
+
+  public static final class Builder {
+    private final ImmutableList.Builder<String> whitelistRegexList = ImmutableList.builder();
+    private final ImmutableList.Builder<String> blacklistRegexList = ImmutableList.builder();
+    private boolean automatonEnabled = true;
+    private int decisionCacheSize;
+
+    private Builder() {
+    }
+
+    public Builder addWhitelistRegex(String regex) {
+      Preconditions.checkNotNullOrEmpty(regex);
+      whitelistRegexList.add(regex);
+      return this;
+    }
+
+    public Builder addBlacklistRegex(String regex) {
+      Preconditions.checkNotNullOrEmpty(regex);
+      blacklistRegexList.add(regex);
+      return this;
+    }
+
+    /**
+     * @see ArtifactFilter#setAutomatonEnabled(boolean)
+     */
+    public Builder automatonEnabled(boolean enabled) {
+      automatonEnabled = enabled;
+      return this;
+    }
+
+    /**
+     * @see ArtifactFilter#setDecisionCacheSize(int)
+     */
+    public Builder decisionCacheSize(int maximumSize) {
+      checkArgument(maximumSize >= 0, "maximumSize must not be negative");
+      decisionCacheSize = maximumSize;
+      return this;
+    }
+
+    /**
+     * compiles the rules
+     */
+    public ArtifactFilterSnapshot build() {
+      return new ArtifactFilterSnapshot(this);
+    }
+  }
+}
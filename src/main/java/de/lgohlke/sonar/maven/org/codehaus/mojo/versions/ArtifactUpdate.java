@@ -27,6 +27,8 @@ import org.apache.maven.model.Dependency;
 
 @RequiredArgsConstructor
 public class ArtifactUpdate {
+  static final String NEWER_VERSION_SEPARATOR = " has newer version available: ";
+
   @Getter
   private final Dependency dependency;
   @Getter
@@ -42,7 +44,7 @@ public class ArtifactUpdate {
     result.append(":");
     result.append(dependency.getVersion());
 
-    result.append(" has newer version available: ");
+    result.append(NEWER_VERSION_SEPARATOR);
     result.append(artifactVersion.toString());
 
     return result.toString();
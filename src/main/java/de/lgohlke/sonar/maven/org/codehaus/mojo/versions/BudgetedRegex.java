@@ -0,0 +1,359 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * regex rules matched with a step budget, so a rule backtracking catastrophically (e.g. <tt>(.*)*RC.*</tt>) cannot
+ * stall the analysis
+ * <p/>
+ * the rules are joined into one pattern with a budget per rule up to {@link #MAX_UNION_BUDGET}, so the union of some
+ * rules does not run out of steps where each rule on its own would not, while a union of many rules cannot read more
+ * than a fixed number of chars; a value exhausting the budget of the union is matched rule by rule again, a rule
+ * exhausting the budget on its own is logged and counts as not matching. Rules repeating a group which matches the same
+ * text in several ways are reported when compiled and are always matched on their own.
+ * <p/>
+ * values are counted through a {@link BudgetedSequence}, a {@link CoordinatesSequence} reuses its own for every match
+ *
+ * @author Lars Gohlke
+ */
+@Slf4j
+final class BudgetedRegex {
+  /**
+   * maximum number of chars read from the value per match, backtracking reads the same chars again and again
+   */
+  static final int DEFAULT_BUDGET = 100000;
+  /**
+   * maximum number of chars the union of all rules reads per match, whatever the number of rules
+   */
+  static final int MAX_UNION_BUDGET = 10 * DEFAULT_BUDGET;
+
+  private final int budget;
+  private final int unionBudget;
+  private final Pattern union;
+  private final List<String> unionRules = Lists.newArrayList();
+  private final List<Pattern> unionPatterns = Lists.newArrayList();
+  private final List<String> isolatedRules = Lists.newArrayList();
+  private final List<Pattern> isolatedPatterns = Lists.newArrayList();
+  private final Set<String> exceededRules = Sets.newSetFromMap(Maps.<String, Boolean>newConcurrentMap());
+
+  /**
+   * @param reportAmbiguousRepetitions warn about rules repeating a group which matches the same text in several ways
+   */
+  BudgetedRegex(List<String> rules, int budget, boolean reportAmbiguousRepetitions) {
+    this.budget = budget;
+    for (String rule : rules) {
+      if (hasAmbiguousRepetition(rule)) {
+        if (reportAmbiguousRepetitions) {
+          log.warn("regex \"{}\" repeats a group which matches in several ways and may backtrack catastrophically, " +
+              "it is matched with a budget of {} steps", rule, budget);
+        }
+        isolatedRules.add(rule);
+        isolatedPatterns.add(Pattern.compile(rule));
+      } else {
+        unionRules.add(rule);
+        unionPatterns.add(Pattern.compile(rule));
+      }
+    }
+    union = unionRules.isEmpty() ? null : Pattern.compile("(" + Joiner.on(")|(").join(unionRules) + ")");
+    unionBudget = (int) Math.max(budget, Math.min(MAX_UNION_BUDGET, (long) budget * unionRules.size()));
+  }
+
+  boolean matches(CharSequence value) {
+    if (union != null) {
+      try {
+        if (matches(union, value, unionBudget)) {
+          return true;
+        }
+      } catch (BudgetExceededException e) {
+        if (matchesAny(unionRules, unionPatterns, value)) {
+          return true;
+        }
+      }
+    }
+    return matchesAny(isolatedRules, isolatedPatterns, value);
+  }
+
+  private boolean matchesAny(List<String> rules, List<Pattern> patterns, CharSequence value) {
+    for (int i = 0; i < patterns.size(); i++) {
+      try {
+        if (matches(patterns.get(i), value, budget)) {
+          return true;
+        }
+      } catch (BudgetExceededException e) {
+        String rule = rules.get(i);
+        if (exceededRules.add(rule)) {
+          log.warn("skipping regex \"{}\", it exceeded the budget of {} steps on \"{}\"", new Object[]{rule, budget, value});
+        } else {
+          log.debug("skipping regex \"{}\" on \"{}\"", rule, value);
+        }
+      }
+    }
+    return false;
+  }
+
+  private static boolean matches(Pattern pattern, CharSequence value, int budget) {
+    CharSequence budgeted = value instanceof CoordinatesSequence
+        ? ((CoordinatesSequence) value).withBudget(budget)
+        : new BudgetedSequence().reset(value, budget);
+    return pattern.matcher(budgeted).matches();
+  }
+
+  int getUnionBudget() {
+    return unionBudget;
+  }
+
+  /**
+   * @return the rules which exceeded the budget at least once
+   */
+  Set<String> getExceededRules() {
+    return exceededRules;
+  }
+
+  /**
+   * finds groups repeated by an unbounded quantifier which can match the same text in several ways: groups containing a
+   * quantifier themselves, like <tt>(a+)+</tt>, <tt>(.*,)*</tt> or <tt>(a|a?)+</tt>, and groups with alternatives which
+   * may start alike, like <tt>(a|aa)*b</tt>; alternatives starting with different literal chars are told apart by the
+   * first char, like <tt>(alpha|beta)*</tt>
+   */
+  static boolean hasAmbiguousRepetition(String regex) {
+    Deque<Group> groups = new ArrayDeque<Group>();
+    Group group = new Group();
+    for (int i = 0; i < regex.length(); i++) {
+      char c = regex.charAt(i);
+      if (c == '\\') {
+        // escaped punctuation is a literal, letters and digits are classes like \d or quotes like \Q
+        boolean literal = i + 1 < regex.length() && !Character.isLetterOrDigit(regex.charAt(i + 1));
+        group.atom(literal ? Character.valueOf(regex.charAt(i + 1)) : null);
+        i++;
+      } else if (c == '[') {
+        group.atom(null);
+        i = endOfClass(regex, i);
+      } else if (c == '(') {
+        int content = startOfGroupContent(regex, i);
+        if (content < 0) {
+          // inline flags like (?i) open no group
+          i = regex.indexOf(')', i);
+          if (i < 0) {
+            break;
+          }
+        } else {
+          group.atom(null);
+          groups.push(group);
+          group = new Group();
+          i = content - 1;
+        }
+      } else if (c == ')' && !groups.isEmpty()) {
+        Group inner = group.end();
+        if (inner.isAmbiguous() && isUnboundedQuantifier(regex, i + 1)) {
+          return true;
+        }
+        group = groups.pop();
+        group.include(inner);
+      } else if (c == '|') {
+        group.alternative();
+      } else if (c == '*' || c == '+' || c == '?') {
+        group.quantified = true;
+      } else if (c == '{' && regex.indexOf('}', i) > 0) {
+        int end = regex.indexOf('}', i);
+        if (isRangeQuantifier(regex.substring(i + 1, end))) {
+          group.quantified = true;
+        }
+        i = end;
+      } else {
+        group.atom(c == '.' ? null : Character.valueOf(c));
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return the index of the first char inside the group opened at the given index, -1 for inline flags like (?i)
+   */
+  private static int startOfGroupContent(String regex, int open) {
+    int i = open + 1;
+    if (i >= regex.length() || regex.charAt(i) != '?') {
+      return i;
+    }
+    i++;
+    if (i < regex.length() && regex.charAt(i) == '<') {
+      i++;
+      if (i < regex.length() && (regex.charAt(i) == '=' || regex.charAt(i) == '!')) {
+        return i + 1;
+      }
+      int end = regex.indexOf('>', i);
+      return end < 0 ? regex.length() : end + 1;
+    }
+    while (i < regex.length() && (Character.isLetter(regex.charAt(i)) || regex.charAt(i) == '-')) {
+      i++;
+    }
+    if (i < regex.length() && regex.charAt(i) == ')') {
+      return -1;
+    }
+    return i + 1;
+  }
+
+  /**
+   * @return false for <tt>{n}</tt>, which repeats exactly and is not ambiguous
+   */
+  private static boolean isRangeQuantifier(String range) {
+    int comma = range.indexOf(',');
+    return comma > 0 && !range.substring(0, comma).equals(range.substring(comma + 1));
+  }
+
+  private static boolean isUnboundedQuantifier(String regex, int position) {
+    if (position >= regex.length()) {
+      return false;
+    }
+    char c = regex.charAt(position);
+    if (c == '*' || c == '+') {
+      return true;
+    }
+    if (c == '{') {
+      int end = regex.indexOf('}', position);
+      return end > 0 && regex.substring(position + 1, end).matches("\\d+,");
+    }
+    return false;
+  }
+
+  private static int endOfClass(String regex, int start) {
+    int depth = 0;
+    for (int i = start; i < regex.length(); i++) {
+      char c = regex.charAt(i);
+      if (c == '\\') {
+        i++;
+      } else if (c == '[') {
+        depth++;
+      } else if (c == ']' && --depth == 0) {
+        return i;
+      }
+    }
+    return regex.length();
+  }
+
+  private static final class BudgetExceededException extends RuntimeException {
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+      return this;
+    }
+  }
+
+  /**
+   * the content of a group read so far, see {@link #hasAmbiguousRepetition(String)}
+   */
+  private static final class Group {
+    private final Set<Character> firstChars = Sets.newHashSet();
+    private int alternatives = 1;
+    private boolean expectingFirst = true;
+    private boolean unknownFirst;
+    private boolean duplicateFirst;
+    private boolean quantified;
+    private boolean containsAmbiguous;
+
+    /**
+     * @param c null for anything but a literal char, like a dot, a class or a group
+     */
+    void atom(Character c) {
+      if (expectingFirst) {
+        expectingFirst = false;
+        if (c == null) {
+          unknownFirst = true;
+        } else if (!firstChars.add(c)) {
+          duplicateFirst = true;
+        }
+      }
+    }
+
+    void alternative() {
+      endAlternative();
+      alternatives++;
+      expectingFirst = true;
+    }
+
+    Group end() {
+      endAlternative();
+      return this;
+    }
+
+    private void endAlternative() {
+      if (expectingFirst) {
+        // an empty alternative
+        unknownFirst = true;
+      }
+    }
+
+    void include(Group inner) {
+      quantified |= inner.quantified;
+      containsAmbiguous |= inner.isAmbiguous();
+    }
+
+    boolean isAmbiguous() {
+      return quantified || containsAmbiguous || (alternatives > 1 && (unknownFirst || duplicateFirst));
+    }
+  }
+
+  /**
+   * counts every char read by the regex engine, reset for each match
+   */
+  static final class BudgetedSequence implements CharSequence {
+    private CharSequence value;
+    private int remaining;
+
+    BudgetedSequence reset(CharSequence value, int budget) {
+      this.value = value;
+      this.remaining = budget;
+      return this;
+    }
+
+    @Override
+    public char charAt(int index) {
+      if (--remaining < 0) {
+        throw new BudgetExceededException();
+      }
+      return value.charAt(index);
+    }
+
+    @Override
+    public int length() {
+      return value.length();
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      return value.subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+      return value.toString();
+    }
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.metadata.ArtifactMetadataRetrievalException;
+import org.apache.maven.artifact.metadata.ArtifactMetadataSource;
+import org.apache.maven.artifact.metadata.ResolutionGroup;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.versioning.ArtifactVersion;
+import org.apache.maven.repository.legacy.metadata.MetadataResolutionRequest;
+
+import java.util.List;
+
+/**
+ * answers the lookups of available versions from a {@link VersionMetadataCache}, everything else is delegated
+ * <p/>
+ * the mirror path names the local mirror the delegate adds versions from, null for none
+ *
+ * @author Lars Gohlke
+ */
+@RequiredArgsConstructor
+class CachingArtifactMetadataSource implements ArtifactMetadataSource {
+  private final ArtifactMetadataSource delegate;
+  private final VersionMetadataCache cache;
+  private final String mirrorPath;
+
+  @Override
+  public List<ArtifactVersion> retrieveAvailableVersions(final Artifact artifact, final ArtifactRepository localRepository,
+                                                         final List<ArtifactRepository> remoteRepositories) throws ArtifactMetadataRetrievalException {
+    List<ArtifactVersion> versions = cache.get(artifact, localRepository, remoteRepositories, mirrorPath);
+    if (versions == null) {
+      versions = delegate.retrieveAvailableVersions(artifact, localRepository, remoteRepositories);
+      cache.put(artifact, localRepository, remoteRepositories, mirrorPath, versions);
+    }
+    return versions;
+  }
+
+  @Override
+  public List<ArtifactVersion> retrieveAvailableVersions(final MetadataResolutionRequest request) throws ArtifactMetadataRetrievalException {
+    List<ArtifactVersion> versions = cache.get(request.getArtifact(), request.getLocalRepository(), request.getRemoteRepositories(), mirrorPath);
+    if (versions == null) {
+      versions = delegate.retrieveAvailableVersions(request);
+      cache.put(request.getArtifact(), request.getLocalRepository(), request.getRemoteRepositories(), mirrorPath, versions);
+    }
+    return versions;
+  }
+
+  @Override
+  public ResolutionGroup retrieve(final MetadataResolutionRequest request) throws ArtifactMetadataRetrievalException {
+    return delegate.retrieve(request);
+  }
+
+  @Override
+  public ResolutionGroup retrieve(final Artifact artifact, final ArtifactRepository localRepository,
+                                  final List<ArtifactRepository> remoteRepositories) throws ArtifactMetadataRetrievalException {
+    return delegate.retrieve(artifact, localRepository, remoteRepositories);
+  }
+
+  @Override
+  public List<ArtifactVersion> retrieveAvailableVersionsFromDeploymentRepository(final Artifact artifact, final ArtifactRepository localRepository,
+                                                                                  final ArtifactRepository remoteRepository) throws ArtifactMetadataRetrievalException {
+    return delegate.retrieveAvailableVersionsFromDeploymentRepository(artifact, localRepository, remoteRepository);
+  }
+}
@@ -0,0 +1,241 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * a list of regex rules compiled for matching, a value matches if it fully matches at least one rule
+ * <p/>
+ * rules which are literals (exact rules) or literals followed by <tt>.*</tt> (prefix rules) are answered by a trie,
+ * only the remaining rules are joined into a regex; an unescaped <tt>.</tt> inside a literal stays a wildcard
+ * <p/>
+ * with the automaton enabled the other rules are compiled into {@link RegexAutomaton}s as far as they are regular. A
+ * union exceeding {@link RegexAutomaton#MAX_STATES} is split in halves until each part fits, so a single rule which
+ * does not fit on its own is matched as regex while all other rules stay in an automaton. Only rules using other
+ * constructs (anchors, back references, lookarounds, ...) are left to the regex.
+ * <p/>
+ * the regex is matched with a step budget, see {@link BudgetedRegex}
+ *
+ * @author Lars Gohlke
+ */
+@Slf4j
+final class CompiledRules {
+  private static final String META_CHARACTERS = "\\^$.|?*+()[]{}";
+
+  private final Node root = new Node();
+  private final List<String> regexRules = Lists.newArrayList();
+  private final List<String> automatonRules = Lists.newArrayList();
+  private final List<RegexAutomaton> automata = Lists.newArrayList();
+  private final BudgetedRegex regex;
+  /**
+   * matches the rules of the automata for values they cannot match, see {@link RegexAutomaton#isMatchable(CharSequence)}
+   */
+  private final BudgetedRegex automatonRegex;
+
+  CompiledRules(List<String> rules) {
+    this(rules, false);
+  }
+
+  CompiledRules(List<String> rules, boolean automatonEnabled) {
+    List<String> regularRules = Lists.newArrayList();
+    for (String rule : rules) {
+      if (addLiteral(rule)) {
+        continue;
+      }
+      if (automatonEnabled && RegexAutomaton.isSupported(rule)) {
+        // fails like before for rules the automaton accepts but the jdk does not
+        Pattern.compile(rule);
+        regularRules.add(rule);
+      } else {
+        regexRules.add(rule);
+      }
+    }
+    if (!regularRules.isEmpty()) {
+      compileAutomata(regularRules);
+    }
+    // the automata never backtrack, their rules are only matched as regex for values with surrogate pairs or line breaks
+    automatonRegex = new BudgetedRegex(automatonRules, BudgetedRegex.DEFAULT_BUDGET, false);
+    regex = new BudgetedRegex(regexRules, BudgetedRegex.DEFAULT_BUDGET, true);
+  }
+
+  private void compileAutomata(List<String> rules) {
+    try {
+      automata.add(RegexAutomaton.compile(rules));
+      automatonRules.addAll(rules);
+    } catch (RegexAutomaton.StateLimitExceededException e) {
+      if (rules.size() == 1) {
+        log.warn("regex \"{}\" needs more than {} automaton states, it is matched as regex", rules.get(0), RegexAutomaton.MAX_STATES);
+        regexRules.add(rules.get(0));
+      } else {
+        int half = rules.size() / 2;
+        compileAutomata(rules.subList(0, half));
+        compileAutomata(rules.subList(half, rules.size()));
+      }
+    }
+  }
+
+  boolean matches(CharSequence value) {
+    return matches(root, value, 0) || matchesAutomata(value) || regex.matches(value);
+  }
+
+  private boolean matchesAutomata(CharSequence value) {
+    if (automata.isEmpty()) {
+      return false;
+    }
+    if (!RegexAutomaton.isMatchable(value)) {
+      return automatonRegex.matches(value);
+    }
+    for (RegexAutomaton automaton : automata) {
+      if (automaton.matches(value)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return the rules which could not be answered by the trie or an automaton
+   */
+  List<String> getRegexRules() {
+    return regexRules;
+  }
+
+  /**
+   * @return the rules answered by the automata
+   */
+  List<String> getAutomatonRules() {
+    return automatonRules;
+  }
+
+  int getAutomatonCount() {
+    return automata.size();
+  }
+
+  private boolean addLiteral(String rule) {
+    boolean prefix = false;
+    int end = rule.length();
+    if (rule.endsWith(".*") && !isEscaped(rule, end - 2)) {
+      prefix = true;
+      end -= 2;
+    }
+
+    List<Character> chars = Lists.newArrayList();
+    List<Boolean> wildcards = Lists.newArrayList();
+    for (int i = 0; i < end; i++) {
+      char c = rule.charAt(i);
+      if (c == '\\') {
+        if (i + 1 >= end || META_CHARACTERS.indexOf(rule.charAt(i + 1)) < 0) {
+          // character classes like \d or quoting like \Q
+          return false;
+        }
+        chars.add(rule.charAt(++i));
+        wildcards.add(Boolean.FALSE);
+      } else if (c == '.') {
+        chars.add(c);
+        wildcards.add(Boolean.TRUE);
+      } else if (META_CHARACTERS.indexOf(c) >= 0) {
+        return false;
+      } else {
+        chars.add(c);
+        wildcards.add(Boolean.FALSE);
+      }
+    }
+
+    Node node = root;
+    for (int i = 0; i < chars.size(); i++) {
+      node = wildcards.get(i) ? node.wildcardChild() : node.child(chars.get(i));
+    }
+    if (prefix) {
+      node.prefix = true;
+    } else {
+      node.exact = true;
+    }
+    return true;
+  }
+
+  private static boolean isEscaped(String rule, int position) {
+    int backslashes = 0;
+    for (int i = position - 1; i >= 0 && rule.charAt(i) == '\\'; i--) {
+      backslashes++;
+    }
+    return backslashes % 2 == 1;
+  }
+
+  private static boolean matches(Node node, CharSequence value, int position) {
+    if (node.prefix && !containsLineTerminator(value, position)) {
+      return true;
+    }
+    if (position == value.length()) {
+      return node.exact;
+    }
+    char c = value.charAt(position);
+    Node child = node.children.get(c);
+    if (child != null && matches(child, value, position + 1)) {
+      return true;
+    }
+    return node.wildcard != null && !isLineTerminator(c) && matches(node.wildcard, value, position + 1);
+  }
+
+  /**
+   * like in {@link Pattern}, <tt>.</tt> does not match line terminators
+   */
+  private static boolean isLineTerminator(char c) {
+    return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+  }
+
+  private static boolean containsLineTerminator(CharSequence value, int from) {
+    for (int i = from; i < value.length(); i++) {
+      if (isLineTerminator(value.charAt(i))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static final class Node {
+    private final Map<Character, Node> children = Maps.newHashMap();
+    private Node wildcard;
+    private boolean exact;
+    private boolean prefix;
+
+    Node child(char c) {
+      Node child = children.get(c);
+      if (child == null) {
+        child = new Node();
+        children.put(c, child);
+      }
+      return child;
+    }
+
+    Node wildcardChild() {
+      if (wildcard == null) {
+        wildcard = new Node();
+      }
+      return wildcard;
+    }
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import java.util.Arrays;
+
+/**
+ * char sequence view of <tt>groupId:artifactId:version has newer version available: candidate</tt> over the
+ * components of an update, the filter rules are matched against it without copying the components into a string
+ * <p/>
+ * the view is reset for each update and must not be shared between threads; equal content means equal views, whether
+ * it was reset from the components or from a whole string, so it can key the decisions of a filter
+ *
+ * @author Lars Gohlke
+ */
+final class CoordinatesSequence implements CharSequence {
+  private static final String SEPARATOR = ":";
+
+  private final String[] segments = new String[7];
+  private final int[] ends = new int[segments.length];
+  private int length;
+  private int hash;
+  private BudgetedRegex.BudgetedSequence budgeted;
+
+  CoordinatesSequence() {
+    reset("");
+  }
+
+  CoordinatesSequence reset(String groupId, String artifactId, String version, String candidateVersion) {
+    segments[0] = String.valueOf(groupId);
+    segments[1] = SEPARATOR;
+    segments[2] = String.valueOf(artifactId);
+    segments[3] = SEPARATOR;
+    segments[4] = String.valueOf(version);
+    segments[5] = ArtifactUpdate.NEWER_VERSION_SEPARATOR;
+    segments[6] = String.valueOf(candidateVersion);
+    return measure();
+  }
+
+  /**
+   * views the coordinates as given, e.g. <tt>groupId:artifactId:version</tt>
+   */
+  CoordinatesSequence reset(String coordinates) {
+    Arrays.fill(segments, "");
+    segments[0] = String.valueOf(coordinates);
+    return measure();
+  }
+
+  private CoordinatesSequence measure() {
+    length = 0;
+    hash = 0;
+    for (int i = 0; i < segments.length; i++) {
+      String segment = segments[i];
+      for (int j = 0; j < segment.length(); j++) {
+        hash = 31 * hash + segment.charAt(j);
+      }
+      length += segment.length();
+      ends[i] = length;
+    }
+    return this;
+  }
+
+  /**
+   * @return this view counting the chars the regex engine reads, the same counting sequence for every match
+   */
+  CharSequence withBudget(int budget) {
+    if (budgeted == null) {
+      budgeted = new BudgetedRegex.BudgetedSequence();
+    }
+    return budgeted.reset(this, budget);
+  }
+
+  /**
+   * @return a view of the current content which is not changed by resetting this one
+   */
+  CoordinatesSequence copy() {
+    CoordinatesSequence copy = new CoordinatesSequence();
+    System.arraycopy(segments, 0, copy.segments, 0, segments.length);
+    System.arraycopy(ends, 0, copy.ends, 0, ends.length);
+    copy.length = length;
+    copy.hash = hash;
+    return copy;
+  }
+
+  @Override
+  public int length() {
+    return length;
+  }
+
+  @Override
+  public char charAt(int index) {
+    if (index < 0 || index >= length) {
+      throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+    }
+    int segment = 0;
+    while (index >= ends[segment]) {
+      segment++;
+    }
+    int start = segment == 0 ? 0 : ends[segment - 1];
+    return segments[segment].charAt(index - start);
+  }
+
+  @Override
+  public CharSequence subSequence(int start, int end) {
+    return toString().substring(start, end);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof CoordinatesSequence)) {
+      return false;
+    }
+    CoordinatesSequence other = (CoordinatesSequence) o;
+    if (length != other.length || hash != other.hash) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (charAt(i) != other.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * same as the hash code of {@link #toString()}
+   */
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder(length);
+    for (String segment : segments) {
+      builder.append(segment);
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import lombok.Getter;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * bounded memo of filter decisions, the least recently used coordinate is evicted first
+ * <p/>
+ * thread safe without a global lock, the decisions are striped over the segments of a guava cache and each segment
+ * evicts on its own, so the eviction order is only approximately least recently used once the cache is large enough
+ * to be split
+ *
+ * @author Lars Gohlke
+ */
+final class DecisionCache {
+  private static final int CONCURRENCY_LEVEL = Runtime.getRuntime().availableProcessors();
+
+  @Getter
+  private final int maximumSize;
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+  private final ConcurrentMap<CoordinatesSequence, Boolean> decisions;
+
+  DecisionCache(int maximumSize) {
+    this.maximumSize = maximumSize;
+    this.decisions = CacheBuilder.newBuilder()
+        .maximumSize(maximumSize)
+        .concurrencyLevel(CONCURRENCY_LEVEL)
+        .build(new CacheLoader<CoordinatesSequence, Boolean>() {
+          @Override
+          public Boolean load(CoordinatesSequence coordinates) {
+            throw new UnsupportedOperationException("decisions are put by the filter");
+          }
+        })
+        .asMap();
+  }
+
+  /**
+   * @return the cached decision or <tt>null</tt>
+   */
+  Boolean get(CoordinatesSequence coordinates) {
+    Boolean decision = decisions.get(coordinates);
+    if (decision == null) {
+      missCount.incrementAndGet();
+    } else {
+      hitCount.incrementAndGet();
+    }
+    return decision;
+  }
+
+  /**
+   * stores a copy of the coordinates, the caller may reset them afterwards
+   */
+  void put(CoordinatesSequence coordinates, boolean decision) {
+    decisions.put(coordinates.copy(), decision);
+  }
+
+  void clear() {
+    decisions.clear();
+  }
+
+  long getHitCount() {
+    return hitCount.get();
+  }
+
+  long getMissCount() {
+    return missCount.get();
+  }
+
+  int size() {
+    return decisions.size();
+  }
+}
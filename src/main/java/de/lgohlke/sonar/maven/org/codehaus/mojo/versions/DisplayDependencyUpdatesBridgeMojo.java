@@ -22,6 +22,7 @@ package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
 import com.google.common.collect.Maps;
 import de.lgohlke.sonar.maven.BridgeMojo;
 import de.lgohlke.sonar.maven.Goal;
+import lombok.AccessLevel;
 import lombok.Setter;
 import org.apache.maven.artifact.metadata.ArtifactMetadataRetrievalException;
 import org.apache.maven.artifact.versioning.ArtifactVersion;
@@ -48,13 +49,16 @@ public class DisplayDependencyUpdatesBridgeMojo extends DisplayDependencyUpdates
   public static final String DEPENDENCIES = "Dependencies";
   private final Map<String, List<ArtifactUpdate>> updateMap = Maps.newHashMap();
 
+  @Setter(AccessLevel.PACKAGE)
   private Boolean processDependencyManagement;
+  @Setter(AccessLevel.PACKAGE)
   private Boolean processDependencies;
+  @Setter(AccessLevel.PACKAGE)
+  private LookupConfiguration lookupConfiguration = LookupConfiguration.SEQUENTIAL;
   @Setter
   private DisplayDependencyUpdatesSensor.DisplayDependencyUpdatesResultHandler resultHandler;
 
   @Override
-  @SuppressWarnings("unchecked")
   public void execute() throws MojoExecutionException, MojoFailureException {
     Set<Dependency> dependencyManagement = new TreeSet<Dependency>(new DependencyComparator());
     if (getProject().getDependencyManagement() != null) {
@@ -69,10 +73,10 @@ public class DisplayDependencyUpdatesBridgeMojo extends DisplayDependencyUpdates
 
     try {
       if (!Boolean.FALSE.equals(processDependencyManagement)) {
-        logUpdates(getHelper().lookupDependenciesUpdates(dependencyManagement, false), DEPENDENCY_MANAGEMENT);
+        logUpdates(lookupDependenciesUpdates(dependencyManagement), DEPENDENCY_MANAGEMENT);
       }
       if (!Boolean.FALSE.equals(processDependencies)) {
-        logUpdates(getHelper().lookupDependenciesUpdates(dependencies, false), DEPENDENCIES);
+        logUpdates(lookupDependenciesUpdates(dependencies), DEPENDENCIES);
       }
     } catch (InvalidVersionSpecificationException e) {
       throw new MojoExecutionException(e.getMessage(), e);
@@ -83,6 +87,18 @@ public class DisplayDependencyUpdatesBridgeMojo extends DisplayDependencyUpdates
     resultHandler.setUpdateMap(updateMap);
   }
 
+  void setAllowSnapshots(final Boolean allowSnapshots) {
+    this.allowSnapshots = allowSnapshots;
+  }
+
+  /**
+   * fans the lookups out over the threads of the {@link LookupConfiguration}
+   */
+  private Map<Dependency, ArtifactVersions> lookupDependenciesUpdates(final Set<Dependency> dependencies)
+      throws MojoExecutionException, ArtifactMetadataRetrievalException, InvalidVersionSpecificationException {
+    return new ParallelVersionLookup(getHelper(), lookupConfiguration).lookupDependenciesUpdates(dependencies, false);
+  }
+
   /**
    * calling private static methods from super class {@link DisplayDependencyUpdatesMojo#removeDependencyManagment(Set, Set)}
    */
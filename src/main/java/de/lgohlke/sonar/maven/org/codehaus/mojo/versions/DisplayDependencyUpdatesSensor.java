@@ -28,11 +28,13 @@ import de.lgohlke.sonar.maven.SensorConfiguration;
 import de.lgohlke.sonar.maven.org.codehaus.mojo.versions.rules.DependencyVersion;
 import lombok.Getter;
 import lombok.Setter;
+import org.apache.maven.model.Dependency;
 import org.apache.maven.project.MavenProject;
 import org.sonar.api.Properties;
 import org.sonar.api.Property;
 import org.sonar.api.PropertyType;
 import org.sonar.api.batch.SensorContext;
+import org.sonar.api.batch.maven.MavenPluginHandler;
 import org.sonar.api.config.Settings;
 import org.sonar.api.profiles.RulesProfile;
 import org.sonar.api.resources.File;
@@ -78,6 +80,15 @@ import static de.lgohlke.sonar.maven.org.codehaus.mojo.versions.Configuration.BA
             global = false,
             project = true,
             type = PropertyType.STRING
+        ),
+        @Property(
+            key = DisplayDependencyUpdatesSensor.LOOKUP_THREADS_KEY,
+            name = DisplayDependencyUpdatesSensor.BASE_NAME + " lookup threads",
+            description = "Number of dependencies and plugins whose versions are looked up in parallel, 1 looks them up one after the other.",
+            defaultValue = "1",
+            global = true,
+            project = true,
+            type = PropertyType.INTEGER
         )
     }
 )
@@ -87,24 +98,47 @@ public class DisplayDependencyUpdatesSensor extends MavenBaseSensor<DisplayDepen
   static final String BASE_NAME = "DependencyUpdates |";
   static final String WHITELIST_KEY = DisplayDependencyUpdatesSensor.SENSOR_KEY + ".whitelist";
   static final String BLACKLIST_KEY = DisplayDependencyUpdatesSensor.SENSOR_KEY + ".blacklist";
+  static final String LOOKUP_THREADS_KEY = DisplayDependencyUpdatesSensor.SENSOR_KEY + ".lookupThreads";
 
   private final Settings settings;
   private final PomSourceImporter pomSourceImporter;
+  private final PomIndexCache pomIndexCache;
+  private final ArtifactFilterRegistry artifactFilterRegistry;
+  private final UnifiedVersionsExecution unifiedVersionsExecution;
 
   @Getter
   @Setter
   public static class DisplayDependencyUpdatesResultHandler implements ResultTransferHandler {
-    private Map<String, List<ArtifactUpdate>> updateMap;
+    private volatile Map<String, List<ArtifactUpdate>> updateMap;
   }
 
   public DisplayDependencyUpdatesSensor(RulesProfile rulesProfile,
                                         MavenPluginExecutor mavenPluginExecutor,
                                         MavenProject mavenProject,
                                         Settings settings,
-                                        PomSourceImporter pomSourceImporter) {
+                                        PomSourceImporter pomSourceImporter,
+                                        PomIndexCache pomIndexCache,
+                                        ArtifactFilterRegistry artifactFilterRegistry,
+                                        UnifiedVersionsExecution unifiedVersionsExecution) {
     super(rulesProfile, mavenPluginExecutor, mavenProject);
     this.settings = settings;
     this.pomSourceImporter = pomSourceImporter;
+    this.pomIndexCache = pomIndexCache;
+    this.artifactFilterRegistry = artifactFilterRegistry;
+    this.unifiedVersionsExecution = unifiedVersionsExecution;
+  }
+
+  /**
+   * @see UnifiedVersionsExecution
+   */
+  @Override
+  protected void injectMojoMapper() {
+    unifiedVersionsExecution.register(getMojoMapper().getResultTransferHandler());
+  }
+
+  @Override
+  public MavenPluginHandler getMavenPluginHandler(final Project project) {
+    return unifiedVersionsExecution.claimMavenPluginHandler(this);
   }
 
   @Override
@@ -113,16 +147,19 @@ public class DisplayDependencyUpdatesSensor extends MavenBaseSensor<DisplayDepen
 
     Rule rule = createRuleFrom(DependencyVersion.class);
     final File file = pomSourceImporter.getPomFile();
+    PomIndex pomIndex = pomIndexCache.getIndex(pomSourceImporter);
 
-    ArtifactFilter filter = createFilter(settings);
+    ArtifactFilterSnapshot filter = createFilter(settings);
 
     for (Map.Entry<String, List<ArtifactUpdate>> entry : resultTransferHandler.getUpdateMap().entrySet()) {
+      PomUtils.TYPE type = DisplayDependencyUpdatesBridgeMojo.DEPENDENCY_MANAGEMENT.equals(entry.getKey()) ?
+          PomUtils.TYPE.managedDependency : PomUtils.TYPE.dependency;
       List<ArtifactUpdate> updates = entry.getValue();
       for (ArtifactUpdate update : updates) {
-        if (filter.acceptArtifact(update.toString())) {
+        if (filter.acceptArtifact(update)) {
 
           Violation violation = Violation.create(rule, file);
-          int line = update.getDependency().getLocation("version").getLineNumber();
+          int line = getLine(pomIndex, update.getDependency(), type);
           violation.setLineId(line);
           violation.setMessage(" a new version is available: " + update.getArtifactVersion().toString());
           context.saveViolation(violation);
@@ -131,11 +168,25 @@ public class DisplayDependencyUpdatesSensor extends MavenBaseSensor<DisplayDepen
     }
   }
 
-  private ArtifactFilter createFilter(Settings settings) {
-    Map<String, String> mappedParams = createRulePropertiesMap(DependencyVersion.class);
-    ArtifactFilter filterFromRules = ArtifactFilterFactory.createFilterFromMap(mappedParams, DependencyVersion.RULE_PROPERTY_WHITELIST, DependencyVersion.RULE_PROPERTY_BLACKLIST);
-    ArtifactFilter filterFromSettings = ArtifactFilterFactory.createFilterFromSettings(settings, WHITELIST_KEY, BLACKLIST_KEY);
+  /**
+   * prefers the line of the version tracked by the maven model, the index is only searched if the model has none for
+   * this pom and falls back to the artifactId when the version in the pom is a property
+   */
+  private int getLine(PomIndex pomIndex, Dependency dependency, PomUtils.TYPE type) {
+    int line = PomUtils.getLine(dependency, "version", getMavenProject().getFile());
+    if (line == 0) {
+      line = pomIndex.getLine(dependency, type);
+    }
+    if (line == 0) {
+      Dependency withoutVersion = DependencyUtils.createDependency(dependency.getGroupId(), dependency.getArtifactId(), null);
+      line = pomIndex.getLine(withoutVersion, type);
+    }
+    return line;
+  }
 
-    return ArtifactFilterFactory.createFilterFromMerge(filterFromSettings, filterFromRules);
+  private ArtifactFilterSnapshot createFilter(Settings settings) {
+    Map<String, String> mappedParams = createRulePropertiesMap(DependencyVersion.class);
+    return artifactFilterRegistry.getFilter(settings, WHITELIST_KEY, BLACKLIST_KEY,
+        mappedParams, DependencyVersion.RULE_PROPERTY_WHITELIST, DependencyVersion.RULE_PROPERTY_BLACKLIST);
   }
 }
@@ -23,6 +23,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import de.lgohlke.sonar.maven.BridgeMojo;
 import de.lgohlke.sonar.maven.Goal;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
@@ -74,6 +75,8 @@ public class DisplayPluginUpdatesBridgeMojo extends DisplayPluginUpdatesMojo
   private boolean warninNoMinimumVersion = false;
   private IncompatibleParentAndProjectMavenVersion incompatibleParentAndProjectMavenVersion;
 
+  @Setter(AccessLevel.PACKAGE)
+  private LookupConfiguration lookupConfiguration = LookupConfiguration.SEQUENTIAL;
   @Setter
   private DisplayPluginUpdatesSensor.ResultTransferHandler resultHandler;
 
@@ -171,105 +174,96 @@ public class DisplayPluginUpdatesBridgeMojo extends DisplayPluginUpdatesMojo
     ArtifactVersion specMavenVersion = new DefaultArtifactVersion(oGetRequiredMavenVersion(getProject(), "2.0"));
     ArtifactVersion minMavenVersion = null;
 
+    Map<Object, Artifact> pluginArtifacts = new LinkedHashMap<Object, Artifact>();
+    i = plugins.iterator();
+    while (i.hasNext()) {
+      Object plugin = i.next();
+      pluginArtifacts.put(plugin, createPluginArtifact(plugin, getPluginVersion(plugin, parentPluginManagement)));
+    }
+    Map<Object, ArtifactVersions> pluginVersions = lookupPluginVersions(pluginArtifacts);
+
     //    boolean superPomDrivingMinVersion = false;
     i = plugins.iterator();
     while (i.hasNext()) {
       Object plugin = i.next();
       String groupId = oGetPluginGroupId(plugin);
       String artifactId = oGetPluginArtifactId(plugin);
-      String version = oGetPluginVersion(plugin);
+      String version = getPluginVersion(plugin, parentPluginManagement);
       String coords = ArtifactUtils.versionlessKey(groupId, artifactId);
 
-      if (version == null) {
-        version = (String) parentPluginManagement.get(coords);
-      }
-
       //      System.out.println(
       //          new StringBuffer().append("Checking ").append(coords).append(" for updates newer than ").append(
       //              version).toString());
       String effectiveVersion = version;
 
-      VersionRange versionRange;
-      boolean unspecified = version == null;
-      try {
-        versionRange = unspecified ? VersionRange.createFromVersionSpec("[0,)")
-            : VersionRange.createFromVersionSpec(version);
-      } catch (InvalidVersionSpecificationException e) {
-        throw new MojoExecutionException("Invalid version range specification: " + version, e);
-      }
-
-      Artifact artifact = artifactFactory.createPluginArtifact(groupId, artifactId, versionRange);
+      Artifact artifact = pluginArtifacts.get(plugin);
 
       ArtifactVersion artifactVersion = null;
-      try {
-        // now we want to find the newest version that is compatible with the invoking version of Maven
-        ArtifactVersions artifactVersions = getHelper().lookupArtifactVersions(artifact, true);
-        ArtifactVersion[] newerVersions = artifactVersions.getVersions(Boolean.TRUE.equals(this.allowSnapshots));
-        ArtifactVersion minRequires = null;
-        for (int j = newerVersions.length - 1; j >= 0; j--) {
-          Artifact probe = artifactFactory.createDependencyArtifact(groupId, artifactId,
-              VersionRange.createFromVersion(newerVersions[j].toString()), "pom", null, "runtime");
-          try {
-            getHelper().resolveArtifact(probe, true);
-
-            MavenProject mavenProject = projectBuilder.buildFromRepository(probe, remotePluginRepositories,
-                localRepository);
-            ArtifactVersion requires = new DefaultArtifactVersion(oGetRequiredMavenVersion(mavenProject, "2.0"));
-            if ((specMavenVersion.compareTo(requires) >= 0) && (artifactVersion == null)) {
-              artifactVersion = newerVersions[j];
-            }
-            if ((effectiveVersion == null) && (curMavenVersion.compareTo(requires) >= 0)) {
-              // version was unspecified, current version of maven thinks it should use this
-              effectiveVersion = newerVersions[j].toString();
-            }
-            if ((artifactVersion != null) && (effectiveVersion != null)) {
-              // no need to look at any older versions.
-              break;
+      // now we want to find the newest version that is compatible with the invoking version of Maven
+      ArtifactVersions artifactVersions = pluginVersions.get(plugin);
+      ArtifactVersion[] newerVersions = artifactVersions.getVersions(Boolean.TRUE.equals(this.allowSnapshots));
+      ArtifactVersion minRequires = null;
+      for (int j = newerVersions.length - 1; j >= 0; j--) {
+        Artifact probe = artifactFactory.createDependencyArtifact(groupId, artifactId,
+            VersionRange.createFromVersion(newerVersions[j].toString()), "pom", null, "runtime");
+        try {
+          getHelper().resolveArtifact(probe, true);
+
+          MavenProject mavenProject = projectBuilder.buildFromRepository(probe, remotePluginRepositories,
+              localRepository);
+          ArtifactVersion requires = new DefaultArtifactVersion(oGetRequiredMavenVersion(mavenProject, "2.0"));
+          if ((specMavenVersion.compareTo(requires) >= 0) && (artifactVersion == null)) {
+            artifactVersion = newerVersions[j];
+          }
+          if ((effectiveVersion == null) && (curMavenVersion.compareTo(requires) >= 0)) {
+            // version was unspecified, current version of maven thinks it should use this
+            effectiveVersion = newerVersions[j].toString();
+          }
+          if ((artifactVersion != null) && (effectiveVersion != null)) {
+            // no need to look at any older versions.
+            break;
+          }
+          if ((minRequires == null) || (minRequires.compareTo(requires) > 0)) {
+            Map /*<String,String*/ upgradePlugins = (Map) upgrades.get(requires);
+            if (upgradePlugins == null) {
+              upgrades.put(requires, upgradePlugins = new LinkedHashMap());
             }
-            if ((minRequires == null) || (minRequires.compareTo(requires) > 0)) {
-              Map /*<String,String*/ upgradePlugins = (Map) upgrades.get(requires);
-              if (upgradePlugins == null) {
-                upgrades.put(requires, upgradePlugins = new LinkedHashMap());
-              }
-
-              String upgradePluginKey = oCompactKey(groupId, artifactId);
-              if (!upgradePlugins.containsKey(upgradePluginKey)) {
-                upgradePlugins.put(upgradePluginKey, newerVersions[j].toString());
-              }
-              minRequires = requires;
+
+            String upgradePluginKey = oCompactKey(groupId, artifactId);
+            if (!upgradePlugins.containsKey(upgradePluginKey)) {
+              upgradePlugins.put(upgradePluginKey, newerVersions[j].toString());
             }
-          } catch (ArtifactResolutionException e) {
-            // ignore bad version
-          } catch (ArtifactNotFoundException e) {
-            // ignore bad version
-          } catch (ProjectBuildingException e) {
-            // ignore bad version
+            minRequires = requires;
           }
+        } catch (ArtifactResolutionException e) {
+          // ignore bad version
+        } catch (ArtifactNotFoundException e) {
+          // ignore bad version
+        } catch (ProjectBuildingException e) {
+          // ignore bad version
         }
-        if (effectiveVersion != null) {
-          VersionRange currentVersionRange = VersionRange.createFromVersion(effectiveVersion);
-          Artifact probe = artifactFactory.createDependencyArtifact(groupId, artifactId, currentVersionRange, "pom",
-              null,
-              "runtime");
-          try {
-            getHelper().resolveArtifact(probe, true);
-
-            MavenProject mavenProject = projectBuilder.buildFromRepository(probe, remotePluginRepositories,
-                localRepository);
-            ArtifactVersion requires = new DefaultArtifactVersion(oGetRequiredMavenVersion(mavenProject, "2.0"));
-            if ((minMavenVersion == null) || (minMavenVersion.compareTo(requires) < 0)) {
-              minMavenVersion = requires;
-            }
-          } catch (ArtifactResolutionException e) {
-            // ignore bad version
-          } catch (ArtifactNotFoundException e) {
-            // ignore bad version
-          } catch (ProjectBuildingException e) {
-            // ignore bad version
+      }
+      if (effectiveVersion != null) {
+        VersionRange currentVersionRange = VersionRange.createFromVersion(effectiveVersion);
+        Artifact probe = artifactFactory.createDependencyArtifact(groupId, artifactId, currentVersionRange, "pom",
+            null,
+            "runtime");
+        try {
+          getHelper().resolveArtifact(probe, true);
+
+          MavenProject mavenProject = projectBuilder.buildFromRepository(probe, remotePluginRepositories,
+              localRepository);
+          ArtifactVersion requires = new DefaultArtifactVersion(oGetRequiredMavenVersion(mavenProject, "2.0"));
+          if ((minMavenVersion == null) || (minMavenVersion.compareTo(requires) < 0)) {
+            minMavenVersion = requires;
           }
+        } catch (ArtifactResolutionException e) {
+          // ignore bad version
+        } catch (ArtifactNotFoundException e) {
+          // ignore bad version
+        } catch (ProjectBuildingException e) {
+          // ignore bad version
         }
-      } catch (ArtifactMetadataRetrievalException e) {
-        throw new MojoExecutionException(e.getMessage(), e);
       }
 
       String newVersion;
@@ -408,6 +402,42 @@ public class DisplayPluginUpdatesBridgeMojo extends DisplayPluginUpdatesMojo
     }
   }
 
+  private String getPluginVersion(final Object plugin, final Map parentPluginManagement) {
+    String version = oGetPluginVersion(plugin);
+    if (version == null) {
+      version = (String) parentPluginManagement.get(
+          ArtifactUtils.versionlessKey(oGetPluginGroupId(plugin), oGetPluginArtifactId(plugin)));
+    }
+    return version;
+  }
+
+  private Artifact createPluginArtifact(final Object plugin, final String version) throws MojoExecutionException {
+    VersionRange versionRange;
+    boolean unspecified = version == null;
+    try {
+      versionRange = unspecified ? VersionRange.createFromVersionSpec("[0,)")
+          : VersionRange.createFromVersionSpec(version);
+    } catch (InvalidVersionSpecificationException e) {
+      throw new MojoExecutionException("Invalid version range specification: " + version, e);
+    }
+    return artifactFactory.createPluginArtifact(oGetPluginGroupId(plugin), oGetPluginArtifactId(plugin), versionRange);
+  }
+
+  /**
+   * looks up the versions of all plugins on the threads of the {@link LookupConfiguration}, before each of them is
+   * probed for the maven version it requires
+   */
+  private Map<Object, ArtifactVersions> lookupPluginVersions(final Map<Object, Artifact> pluginArtifacts)
+      throws MojoExecutionException {
+    try {
+      return new ParallelVersionLookup(getHelper(), lookupConfiguration).lookupArtifactVersions(pluginArtifacts, true);
+    } catch (ArtifactMetadataRetrievalException e) {
+      throw new MojoExecutionException(e.getMessage(), e);
+    } catch (InvalidVersionSpecificationException e) {
+      throw new MojoExecutionException(e.getMessage(), e);
+    }
+  }
+
   private void addMissingVersionPlugin(final String groupId, final String artifactId, final String version) {
     Dependency dependency = DependencyUtils.createDependency(groupId, artifactId, version);
     missingVersionPlugins.add(dependency);
@@ -34,6 +34,7 @@ import org.sonar.api.Properties;
 import org.sonar.api.Property;
 import org.sonar.api.PropertyType;
 import org.sonar.api.batch.SensorContext;
+import org.sonar.api.batch.maven.MavenPluginHandler;
 import org.sonar.api.config.Settings;
 import org.sonar.api.profiles.RulesProfile;
 import org.sonar.api.resources.File;
@@ -90,24 +91,46 @@ public class DisplayPluginUpdatesSensor extends MavenBaseSensor<DisplayPluginUpd
 
   private final Settings settings;
   private final PomSourceImporter pomSourceImporter;
+  private final PomIndexCache pomIndexCache;
+  private final ArtifactFilterRegistry artifactFilterRegistry;
+  private final UnifiedVersionsExecution unifiedVersionsExecution;
 
   @Setter
   @Getter
   public static class ResultTransferHandler implements de.lgohlke.sonar.maven.ResultTransferHandler {
-    private List<ArtifactUpdate> pluginUpdates;
-    private List<Dependency> missingVersionPlugins;
-    private boolean warninNoMinimumVersion;
-    private DisplayPluginUpdatesBridgeMojo.IncompatibleParentAndProjectMavenVersion incompatibleParentAndProjectMavenVersion;
+    private volatile List<ArtifactUpdate> pluginUpdates;
+    private volatile List<Dependency> missingVersionPlugins;
+    private volatile boolean warninNoMinimumVersion;
+    private volatile DisplayPluginUpdatesBridgeMojo.IncompatibleParentAndProjectMavenVersion incompatibleParentAndProjectMavenVersion;
   }
 
   public DisplayPluginUpdatesSensor(RulesProfile rulesProfile,
                                     MavenPluginExecutor mavenPluginExecutor,
                                     MavenProject mavenProject,
                                     Settings settings,
-                                    PomSourceImporter pomSourceImporter) {
+                                    PomSourceImporter pomSourceImporter,
+                                    PomIndexCache pomIndexCache,
+                                    ArtifactFilterRegistry artifactFilterRegistry,
+                                    UnifiedVersionsExecution unifiedVersionsExecution) {
     super(rulesProfile, mavenPluginExecutor, mavenProject);
     this.settings = settings;
     this.pomSourceImporter = pomSourceImporter;
+    this.pomIndexCache = pomIndexCache;
+    this.artifactFilterRegistry = artifactFilterRegistry;
+    this.unifiedVersionsExecution = unifiedVersionsExecution;
+  }
+
+  /**
+   * @see UnifiedVersionsExecution
+   */
+  @Override
+  protected void injectMojoMapper() {
+    unifiedVersionsExecution.register(getMojoMapper().getResultTransferHandler());
+  }
+
+  @Override
+  public MavenPluginHandler getMavenPluginHandler(final Project project) {
+    return unifiedVersionsExecution.claimMavenPluginHandler(this);
   }
 
   @Override
@@ -115,7 +138,7 @@ public class DisplayPluginUpdatesSensor extends MavenBaseSensor<DisplayPluginUpd
     ResultTransferHandler resultTransferHandler = getMojoMapper().getResultTransferHandler();
 
     final File file = pomSourceImporter.getPomFile();
-    String sourceOfPom = pomSourceImporter.getSourceOfPom();
+    PomIndex pomIndex = pomIndexCache.getIndex(pomSourceImporter);
 
     // minimum version warning
     if (resultTransferHandler.isWarninNoMinimumVersion()) {
@@ -145,7 +168,7 @@ public class DisplayPluginUpdatesSensor extends MavenBaseSensor<DisplayPluginUpd
     Rule missingVersionRule = createRuleFrom(MissingPluginVersion.class);
     for (Dependency dependency : resultTransferHandler.getMissingVersionPlugins()) {
       Violation violation = Violation.create(missingVersionRule, file);
-      int line = PomUtils.getLine(sourceOfPom,dependency,PomUtils.TYPE.plugin);
+      int line = pomIndex.getLine(dependency, PomUtils.TYPE.plugin, PomUtils.TYPE.reportPlugin);
       violation.setLineId(line);
 
       String artifact = dependency.getGroupId() + ":" + dependency.getArtifactId();
@@ -155,11 +178,11 @@ public class DisplayPluginUpdatesSensor extends MavenBaseSensor<DisplayPluginUpd
 
     // updates
     Rule rule = createRuleFrom(PluginVersion.class);
-    ArtifactFilter filter = createFilter(settings);
+    ArtifactFilterSnapshot filter = createFilter(settings);
     for (ArtifactUpdate update : resultTransferHandler.getPluginUpdates()) {
-      if (filter.acceptArtifact(update.toString())) {
+      if (filter.acceptArtifact(update)) {
         Violation violation = Violation.create(rule, file);
-        int line = PomUtils.getLine(sourceOfPom,update.getDependency(),PomUtils.TYPE.plugin);
+        int line = pomIndex.getLine(update.getDependency(), PomUtils.TYPE.plugin, PomUtils.TYPE.reportPlugin);
         violation.setLineId(line);
         violation.setMessage(update.toString());
         context.saveViolation(violation);
@@ -167,11 +190,9 @@ public class DisplayPluginUpdatesSensor extends MavenBaseSensor<DisplayPluginUpd
     }
   }
 
-  private ArtifactFilter createFilter(Settings settings) {
+  private ArtifactFilterSnapshot createFilter(Settings settings) {
     Map<String, String> mappedParams = createRulePropertiesMap(PluginVersion.class);
-    ArtifactFilter filterFromRules = ArtifactFilterFactory.createFilterFromMap(mappedParams, PluginVersion.RULE_PROPERTY_WHITELIST, PluginVersion.RULE_PROPERTY_BLACKLIST);
-    ArtifactFilter filterFromSettings = ArtifactFilterFactory.createFilterFromSettings(settings, WHITELIST_KEY, BLACKLIST_KEY);
-
-    return ArtifactFilterFactory.createFilterFromMerge(filterFromSettings, filterFromRules);
+    return artifactFilterRegistry.getFilter(settings, WHITELIST_KEY, BLACKLIST_KEY,
+        mappedParams, PluginVersion.RULE_PROPERTY_WHITELIST, PluginVersion.RULE_PROPERTY_BLACKLIST);
   }
 }
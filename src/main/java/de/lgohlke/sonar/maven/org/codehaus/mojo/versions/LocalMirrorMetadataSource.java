@@ -0,0 +1,123 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import lombok.RequiredArgsConstructor;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.metadata.ArtifactMetadataRetrievalException;
+import org.apache.maven.artifact.metadata.ArtifactMetadataSource;
+import org.apache.maven.artifact.metadata.ResolutionGroup;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.versioning.ArtifactVersion;
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+import org.apache.maven.repository.legacy.metadata.MetadataResolutionRequest;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * adds the versions found in a local mirror to the available versions, the repositories do not know the mirror as it
+ * is only read by the workspace reader of the embedder, which version lookups never consult
+ * <p/>
+ * a version is available when its directory in the mirror holds the pom of the artifact
+ *
+ * @author Lars Gohlke
+ */
+@RequiredArgsConstructor
+class LocalMirrorMetadataSource implements ArtifactMetadataSource {
+  private final ArtifactMetadataSource delegate;
+  private final File mirrorDirectory;
+
+  /**
+   * @param mirrorPath null leaves the source as it is
+   */
+  static ArtifactMetadataSource decorate(final ArtifactMetadataSource source, final String mirrorPath) {
+    if (source == null || mirrorPath == null || source instanceof LocalMirrorMetadataSource) {
+      return source;
+    }
+    return new LocalMirrorMetadataSource(source, new File(mirrorPath));
+  }
+
+  @Override
+  public List<ArtifactVersion> retrieveAvailableVersions(final Artifact artifact, final ArtifactRepository localRepository,
+                                                         final List<ArtifactRepository> remoteRepositories) throws ArtifactMetadataRetrievalException {
+    return addMirrorVersions(artifact, delegate.retrieveAvailableVersions(artifact, localRepository, remoteRepositories));
+  }
+
+  @Override
+  public List<ArtifactVersion> retrieveAvailableVersions(final MetadataResolutionRequest request) throws ArtifactMetadataRetrievalException {
+    return addMirrorVersions(request.getArtifact(), delegate.retrieveAvailableVersions(request));
+  }
+
+  @Override
+  public ResolutionGroup retrieve(final MetadataResolutionRequest request) throws ArtifactMetadataRetrievalException {
+    return delegate.retrieve(request);
+  }
+
+  @Override
+  public ResolutionGroup retrieve(final Artifact artifact, final ArtifactRepository localRepository,
+                                  final List<ArtifactRepository> remoteRepositories) throws ArtifactMetadataRetrievalException {
+    return delegate.retrieve(artifact, localRepository, remoteRepositories);
+  }
+
+  @Override
+  public List<ArtifactVersion> retrieveAvailableVersionsFromDeploymentRepository(final Artifact artifact, final ArtifactRepository localRepository,
+                                                                                  final ArtifactRepository remoteRepository) throws ArtifactMetadataRetrievalException {
+    return delegate.retrieveAvailableVersionsFromDeploymentRepository(artifact, localRepository, remoteRepository);
+  }
+
+  private List<ArtifactVersion> addMirrorVersions(final Artifact artifact, final List<ArtifactVersion> versions) {
+    List<ArtifactVersion> merged = Lists.newArrayList(versions);
+    Set<String> known = Sets.newHashSet();
+    for (ArtifactVersion version : versions) {
+      known.add(version.toString());
+    }
+    for (String version : findVersions(artifact.getGroupId(), artifact.getArtifactId())) {
+      if (known.add(version)) {
+        merged.add(new DefaultArtifactVersion(version));
+      }
+    }
+    return merged;
+  }
+
+  private List<String> findVersions(final String groupId, final String artifactId) {
+    File artifactDirectory = new File(new File(mirrorDirectory, groupId.replace('.', File.separatorChar)), artifactId);
+    File[] versionDirectories = artifactDirectory.listFiles(new FileFilter() {
+      @Override
+      public boolean accept(File file) {
+        return file.isDirectory();
+      }
+    });
+    List<String> found = Lists.newArrayList();
+    if (versionDirectories != null) {
+      for (File versionDirectory : versionDirectories) {
+        String version = versionDirectory.getName();
+        if (new File(versionDirectory, artifactId + '-' + version + ".pom").isFile()) {
+          found.add(version);
+        }
+      }
+    }
+    return found;
+  }
+}
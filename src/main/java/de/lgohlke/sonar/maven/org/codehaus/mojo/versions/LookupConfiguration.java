@@ -0,0 +1,67 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import de.lgohlke.sonar.MavenPlugin;
+import lombok.Getter;
+import lombok.ToString;
+import org.sonar.api.config.Settings;
+
+import java.util.concurrent.ExecutorService;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * how many metadata lookups a bridge mojo runs at the same time and on which executor
+ * <p/>
+ * read from the settings by the {@link UnifiedVersionsExecution} and handed to the delegate bridge mojo like its other
+ * parameters, it does not travel with the results of a sensor
+ *
+ * @author Lars Gohlke
+ */
+@Getter
+@ToString
+public final class LookupConfiguration {
+  public static final LookupConfiguration SEQUENTIAL = new LookupConfiguration(1, LookupExecutorBackend.DEFAULT);
+
+  private final int threads;
+  private final LookupExecutorBackend executorBackend;
+
+  LookupConfiguration(final int threads, final LookupExecutorBackend executorBackend) {
+    checkArgument(threads > 0, "the number of threads must be positive, but was %s", threads);
+    this.threads = threads;
+    this.executorBackend = checkNotNull(executorBackend);
+  }
+
+  /**
+   * one thread is a single thread executor as well, so every lookup runs the same way whatever the number of threads
+   *
+   * @return an executor with as many threads as configured, but not more than there are lookups
+   */
+  ExecutorService createExecutor(final int lookups) {
+    return executorBackend.create(Math.max(1, Math.min(threads, lookups)));
+  }
+
+  static LookupConfiguration fromSettings(final Settings settings) {
+    return new LookupConfiguration(Math.max(1, settings.getInt(DisplayDependencyUpdatesSensor.LOOKUP_THREADS_KEY)),
+        LookupExecutorBackend.fromSetting(settings.getString(MavenPlugin.LOOKUP_EXECUTOR)));
+  }
+}
@@ -0,0 +1,181 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * the executors the metadata lookups of the bridge mojos run on
+ *
+ * @author Lars Gohlke
+ */
+@Slf4j
+public enum LookupExecutorBackend {
+  /**
+   * at most the given number of daemon threads
+   */
+  FIXED_THREAD_POOL {
+    @Override
+    boolean isAvailable() {
+      return true;
+    }
+
+    @Override
+    ExecutorService create(final int threads) {
+      checkArgument(threads > 0, "the number of threads must be positive, but was %s", threads);
+      return Executors.newFixedThreadPool(threads,
+          new ThreadFactoryBuilder().setDaemon(true).setNameFormat("metadata-lookup-%d").build());
+    }
+  },
+  /**
+   * a virtual thread per lookup, at most the given number of them run a lookup at the same time, the others wait for a
+   * permit; needs a java 21 runtime, {@link #fromSetting(String)} resolves it to {@link #FIXED_THREAD_POOL} on others
+   */
+  VIRTUAL_THREAD_PER_TASK {
+    @Override
+    boolean isAvailable() {
+      return virtualThreadFactoryMethod() != null;
+    }
+
+    @Override
+    ExecutorService create(final int threads) {
+      checkArgument(threads > 0, "the number of threads must be positive, but was %s", threads);
+      Method factoryMethod = virtualThreadFactoryMethod();
+      if (factoryMethod == null) {
+        throw new IllegalStateException("virtual threads are not supported by java " + System.getProperty("java.version"));
+      }
+      try {
+        return new BoundedExecutorService((ExecutorService) factoryMethod.invoke(null), threads);
+      } catch (IllegalAccessException e) {
+        throw new IllegalStateException("could not create virtual thread executor", e);
+      } catch (InvocationTargetException e) {
+        throw new IllegalStateException("could not create virtual thread executor", e.getCause());
+      }
+    }
+  };
+
+  public static final LookupExecutorBackend DEFAULT = FIXED_THREAD_POOL;
+
+  abstract boolean isAvailable();
+
+  abstract ExecutorService create(int threads);
+
+  /**
+   * @return the backend named by the setting, {@link #DEFAULT} for blank or unknown names and for backends the runtime
+   *         does not support
+   */
+  public static LookupExecutorBackend fromSetting(final String name) {
+    if (name == null || name.trim().length() == 0) {
+      return DEFAULT;
+    }
+    LookupExecutorBackend backend;
+    try {
+      backend = valueOf(name.trim());
+    } catch (IllegalArgumentException e) {
+      log.warn("unknown lookup executor {}, using {}", name, DEFAULT);
+      return DEFAULT;
+    }
+    if (!backend.isAvailable()) {
+      log.warn("lookup executor {} is not supported by java {}, using {}", new Object[]{backend, System.getProperty("java.version"), DEFAULT});
+      return DEFAULT;
+    }
+    return backend;
+  }
+
+  private static Method virtualThreadFactoryMethod() {
+    try {
+      return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+
+  /**
+   * runs at most as many tasks at the same time as it has permits, a task waits for its permit on the thread of the
+   * delegate; meant for delegates whose threads are cheap to block
+   */
+  static final class BoundedExecutorService extends AbstractExecutorService {
+    private final ExecutorService delegate;
+    private final Semaphore permits;
+
+    BoundedExecutorService(final ExecutorService delegate, final int permits) {
+      checkArgument(permits > 0, "the number of permits must be positive, but was %s", permits);
+      this.delegate = delegate;
+      this.permits = new Semaphore(permits);
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+      delegate.execute(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            permits.acquire();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+          }
+          try {
+            command.run();
+          } finally {
+            permits.release();
+          }
+        }
+      });
+    }
+
+    @Override
+    public void shutdown() {
+      delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+      return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+      return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+      return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+      return delegate.awaitTermination(timeout, unit);
+    }
+  }
+}
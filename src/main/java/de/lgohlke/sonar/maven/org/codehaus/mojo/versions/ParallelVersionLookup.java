@@ -0,0 +1,187 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import lombok.RequiredArgsConstructor;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.metadata.ArtifactMetadataRetrievalException;
+import org.apache.maven.artifact.versioning.InvalidVersionSpecificationException;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.codehaus.mojo.versions.api.ArtifactVersions;
+import org.codehaus.mojo.versions.api.VersionsHelper;
+import org.codehaus.mojo.versions.utils.DependencyComparator;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * runs the version lookups of the bridge mojos on an executor of the {@link LookupConfiguration}, the updates of each
+ * artifact as a task of its own, instead of one after the other like
+ * {@link VersionsHelper#lookupDependenciesUpdates(Set, boolean)}; a single thread is a single thread executor, not a
+ * path of its own
+ * <p/>
+ * the versions of one groupId:artifactId are looked up one after the other in the same task: concurrent lookups
+ * of the same artifact resolve the same metadata file in the local repository, and the maven-compat metadata source
+ * then returns no versions for some of them; lookups of different artifacts share the helper safely, both are shown by
+ * running a real {@link org.codehaus.mojo.versions.api.DefaultVersionsHelper} against a file repository
+ * <p/>
+ * @author Lars Gohlke
+ */
+@RequiredArgsConstructor
+class ParallelVersionLookup {
+  private final VersionsHelper helper;
+  private final LookupConfiguration configuration;
+
+  Map<Dependency, ArtifactVersions> lookupDependenciesUpdates(final Set<Dependency> dependencies, final boolean usePluginRepositories)
+      throws ArtifactMetadataRetrievalException, InvalidVersionSpecificationException, MojoExecutionException {
+    Map<String, List<Dependency>> artifacts = Maps.newLinkedHashMap();
+    for (Dependency dependency : dependencies) {
+      addTo(artifacts, dependency.getGroupId() + ":" + dependency.getArtifactId(), dependency);
+    }
+    return lookup(artifacts, new Lookup<Dependency>() {
+      @Override
+      public ArtifactVersions lookup(final Dependency dependency) throws Exception {
+        return helper.lookupDependencyUpdates(dependency, usePluginRepositories);
+      }
+    }, new TreeMap<Dependency, ArtifactVersions>(new DependencyComparator()));
+  }
+
+  /**
+   * @return the versions of each artifact under the key it was passed with, in the order of the keys
+   */
+  <K> Map<K, ArtifactVersions> lookupArtifactVersions(final Map<K, Artifact> artifacts, final boolean usePluginRepositories)
+      throws ArtifactMetadataRetrievalException, InvalidVersionSpecificationException, MojoExecutionException {
+    Map<String, List<K>> keys = Maps.newLinkedHashMap();
+    for (Map.Entry<K, Artifact> entry : artifacts.entrySet()) {
+      addTo(keys, entry.getValue().getGroupId() + ":" + entry.getValue().getArtifactId(), entry.getKey());
+    }
+    return lookup(keys, new Lookup<K>() {
+      @Override
+      public ArtifactVersions lookup(final K key) throws Exception {
+        return helper.lookupArtifactVersions(artifacts.get(key), usePluginRepositories);
+      }
+    }, Maps.<K, ArtifactVersions>newLinkedHashMap());
+  }
+
+  /**
+   * runs a single lookup, like the one of the parent, on the executor as well
+   */
+  <V> V lookup(final Callable<V> lookup)
+      throws ArtifactMetadataRetrievalException, InvalidVersionSpecificationException, MojoExecutionException {
+    ExecutorService executor = configuration.createExecutor(1);
+    try {
+      return await(executor.submit(lookup));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private <K> Map<K, ArtifactVersions> lookup(final Map<String, List<K>> artifacts, final Lookup<K> lookup,
+                                              final Map<K, ArtifactVersions> versions)
+      throws ArtifactMetadataRetrievalException, InvalidVersionSpecificationException, MojoExecutionException {
+    if (artifacts.isEmpty()) {
+      return versions;
+    }
+    ExecutorService executor = configuration.createExecutor(artifacts.size());
+    List<Future<List<ArtifactVersions>>> lookups = Lists.newArrayListWithCapacity(artifacts.size());
+    try {
+      for (final List<K> sameArtifact : artifacts.values()) {
+        lookups.add(executor.submit(new Callable<List<ArtifactVersions>>() {
+          @Override
+          public List<ArtifactVersions> call() throws Exception {
+            List<ArtifactVersions> found = Lists.newArrayListWithCapacity(sameArtifact.size());
+            for (K key : sameArtifact) {
+              found.add(lookup.lookup(key));
+            }
+            return found;
+          }
+        }));
+      }
+
+      int index = 0;
+      for (List<K> sameArtifact : artifacts.values()) {
+        List<ArtifactVersions> found = await(lookups.get(index++));
+        for (int i = 0; i < sameArtifact.size(); i++) {
+          versions.put(sameArtifact.get(i), found.get(i));
+        }
+      }
+      return versions;
+    } finally {
+      for (Future<List<ArtifactVersions>> pending : lookups) {
+        pending.cancel(true);
+      }
+      executor.shutdownNow();
+    }
+  }
+
+  private static <K> void addTo(final Map<String, List<K>> artifacts, final String artifact, final K key) {
+    List<K> sameArtifact = artifacts.get(artifact);
+    if (sameArtifact == null) {
+      sameArtifact = Lists.newArrayList();
+      artifacts.put(artifact, sameArtifact);
+    }
+    sameArtifact.add(key);
+  }
+
+  private static <V> V await(final Future<V> future)
+      throws ArtifactMetadataRetrievalException, InvalidVersionSpecificationException, MojoExecutionException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MojoExecutionException("interrupted while looking up versions", e);
+    } catch (ExecutionException e) {
+      throw rethrow(e.getCause());
+    }
+  }
+
+  private static MojoExecutionException rethrow(final Throwable cause)
+      throws ArtifactMetadataRetrievalException, InvalidVersionSpecificationException {
+    if (cause instanceof ArtifactMetadataRetrievalException) {
+      throw (ArtifactMetadataRetrievalException) cause;
+    }
+    if (cause instanceof InvalidVersionSpecificationException) {
+      throw (InvalidVersionSpecificationException) cause;
+    }
+    if (cause instanceof MojoExecutionException) {
+      return (MojoExecutionException) cause;
+    }
+    if (cause instanceof RuntimeException) {
+      throw (RuntimeException) cause;
+    }
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    return new MojoExecutionException(cause.getMessage(), cause);
+  }
+
+  private interface Lookup<K> {
+    ArtifactVersions lookup(K key) throws Exception;
+  }
+}
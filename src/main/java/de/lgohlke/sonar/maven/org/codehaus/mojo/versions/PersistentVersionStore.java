@@ -0,0 +1,117 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.maven.artifact.versioning.ArtifactVersion;
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * keeps the available versions of an artifact on disk, so later analyses do not ask the repositories again until the
+ * entry is older than the time to live
+ * <p/>
+ * one file per cache key, named by the hash of the key; the first line repeats the key, the others hold the versions
+ *
+ * @author Lars Gohlke
+ */
+@Slf4j
+class PersistentVersionStore {
+  static final String DIRECTORY = "maven-versions";
+  private static final String SUFFIX = ".versions";
+
+  @Getter
+  private final File directory;
+  private final long timeToLiveMillis;
+
+  PersistentVersionStore(final File directory, final long timeToLiveMillis) {
+    checkNotNull(directory);
+    checkArgument(timeToLiveMillis > 0, "time to live must be positive, but was %s", timeToLiveMillis);
+    this.directory = directory;
+    this.timeToLiveMillis = timeToLiveMillis;
+  }
+
+  /**
+   * @return the stored versions, null if there are none or they are expired
+   */
+  List<ArtifactVersion> read(final String key) {
+    File file = file(key);
+    if (!file.isFile() || System.currentTimeMillis() - file.lastModified() > timeToLiveMillis) {
+      return null;
+    }
+    try {
+      List<String> lines = Files.readLines(file, Charsets.UTF_8);
+      if (lines.isEmpty() || !lines.get(0).equals(key)) {
+        return null;
+      }
+      List<ArtifactVersion> versions = Lists.newArrayList();
+      for (String line : lines.subList(1, lines.size())) {
+        versions.add(new DefaultArtifactVersion(line));
+      }
+      return versions;
+    } catch (IOException e) {
+      log.debug("could not read {}: {}", file, e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * replaces the stored versions, a failure is logged only as the versions can be resolved again
+   * <p/>
+   * each write goes to its own temporary file, so concurrent writers of the same key never share a file
+   */
+  void write(final String key, final List<ArtifactVersion> versions) {
+    File file = file(key);
+    File tempFile = null;
+    try {
+      Files.createParentDirs(file);
+      tempFile = File.createTempFile(file.getName(), ".tmp", directory);
+      List<String> lines = Lists.newArrayList(key);
+      for (ArtifactVersion version : versions) {
+        lines.add(version.toString());
+      }
+      Files.write(Joiner.on('\n').join(lines), tempFile, Charsets.UTF_8);
+      if (!tempFile.renameTo(file) && !(file.delete() && tempFile.renameTo(file))) {
+        throw new IOException("could not rename " + tempFile + " to " + file);
+      }
+    } catch (IOException e) {
+      log.warn("could not store versions in {}: {}", file, e.getMessage());
+      if (tempFile != null) {
+        tempFile.delete();
+      }
+    }
+  }
+
+  private File file(final String key) {
+    return new File(directory, DigestUtils.shaHex(key) + SUFFIX);
+  }
+}
@@ -0,0 +1,234 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import com.google.common.collect.Maps;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.maven.model.Dependency;
+import org.fest.util.Preconditions;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+
+/**
+ * maps the coordinates of each block of a pom to its line, built with a single forward pass of a
+ * {@link XMLStreamReader} over the source, which resolves all {@link PomUtils.TYPE}s at once
+ *
+ * @author Lars Gohlke
+ */
+@Slf4j
+public class PomIndex {
+  private static final String REPORTING = "reporting";
+  private static final String DEPENDENCY_MANAGEMENT = "dependencyManagement";
+  private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+  private final Map<String, Integer> lines = Maps.newHashMap();
+
+  PomIndex() {
+  }
+
+  public static PomIndex create(String source) {
+    Preconditions.checkNotNull(source);
+    PomIndex index = new PomIndex();
+    if (source.length() > 0) {
+      try {
+        index.scan(XML_INPUT_FACTORY.createXMLStreamReader(new StringReader(source)));
+      } catch (XMLStreamException e) {
+        log.warn("could not index pom completely: {}", e.getMessage());
+      }
+    }
+    return index;
+  }
+
+  /**
+   * reads the pom while indexing it, without holding its source in memory; the encoding is taken from the xml
+   * declaration and the stream is left open
+   */
+  public static PomIndex create(InputStream stream) {
+    Preconditions.checkNotNull(stream);
+    PomIndex index = new PomIndex();
+    try {
+      index.scan(XML_INPUT_FACTORY.createXMLStreamReader(stream));
+    } catch (XMLStreamException e) {
+      log.warn("could not index pom completely: {}", e.getMessage());
+    }
+    return index;
+  }
+
+  /**
+   * @return the line of the version element, or of the artifactId when the dependency has no version, 0 if not found
+   */
+  public int getLine(Dependency dependency, PomUtils.TYPE type) {
+    Preconditions.checkNotNull(dependency);
+    Integer line = lines.get(createKey(type, dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion()));
+    return line == null ? 0 : line;
+  }
+
+  /**
+   * @return the first line found trying the types in the given order, 0 if not found
+   */
+  public int getLine(Dependency dependency, PomUtils.TYPE... types) {
+    for (PomUtils.TYPE type : types) {
+      int line = getLine(dependency, type);
+      if (line > 0) {
+        return line;
+      }
+    }
+    return 0;
+  }
+
+  private void add(Block block) {
+    int artifactIdLine = block.artifactIdLine > 0 ? block.artifactIdLine : block.line;
+    putIfAbsent(createKey(block.type, block.groupId, block.artifactId, null), artifactIdLine);
+    if (block.version != null && block.version.length() > 0) {
+      putIfAbsent(createKey(block.type, block.groupId, block.artifactId, block.version), block.versionLine);
+    }
+  }
+
+  private void putIfAbsent(String key, int line) {
+    if (!lines.containsKey(key)) {
+      lines.put(key, line);
+    }
+  }
+
+  private static String createKey(PomUtils.TYPE type, String groupId, String artifactId, String version) {
+    StringBuilder key = new StringBuilder(type.name()).append(':').append(groupId).append(':').append(artifactId);
+    if (version != null && version.length() > 0) {
+      key.append(':').append(version);
+    }
+    return key.toString();
+  }
+
+  private void scan(XMLStreamReader reader) throws XMLStreamException {
+    Deque<Block> blocks = new ArrayDeque<Block>();
+    int depth = 0;
+    int reportingDepth = 0;
+    int managementDepth = 0;
+    try {
+      while (reader.hasNext()) {
+        int event = reader.next();
+        if (event == XMLStreamConstants.START_ELEMENT) {
+          depth++;
+          String name = reader.getLocalName();
+          int line = reader.getLocation().getLineNumber();
+          Block current = blocks.peek();
+          if (current != null && current.depth == depth - 1 && current.collect(name, reader, line)) {
+            // getElementText() consumed the end element
+            depth--;
+          } else if (REPORTING.equals(name) && reportingDepth == 0) {
+            reportingDepth = depth;
+          } else if (DEPENDENCY_MANAGEMENT.equals(name) && managementDepth == 0) {
+            managementDepth = depth;
+          } else {
+            PomUtils.TYPE type = typeOf(name, reportingDepth > 0, managementDepth > 0, current);
+            if (type != null) {
+              blocks.push(new Block(type, depth, line));
+            }
+          }
+        } else if (event == XMLStreamConstants.END_ELEMENT) {
+          Block current = blocks.peek();
+          if (current != null && current.depth == depth) {
+            add(blocks.pop());
+          }
+          if (reportingDepth == depth) {
+            reportingDepth = 0;
+          }
+          if (managementDepth == depth) {
+            managementDepth = 0;
+          }
+          depth--;
+        }
+      }
+    } finally {
+      reader.close();
+    }
+  }
+
+  /**
+   * dependencies of a plugin and managed dependencies get their own type, they must not be found as dependencies of the
+   * project when looking up an artifact without version
+   */
+  private static PomUtils.TYPE typeOf(String name, boolean reporting, boolean managed, Block enclosing) {
+    if (PomUtils.TYPE.plugin.getElement().equals(name)) {
+      return reporting ? PomUtils.TYPE.reportPlugin : PomUtils.TYPE.plugin;
+    }
+    if (PomUtils.TYPE.dependency.getElement().equals(name)) {
+      if (enclosing != null && (enclosing.type == PomUtils.TYPE.plugin || enclosing.type == PomUtils.TYPE.reportPlugin)) {
+        return PomUtils.TYPE.pluginDependency;
+      }
+      return managed ? PomUtils.TYPE.managedDependency : PomUtils.TYPE.dependency;
+    }
+    for (PomUtils.TYPE type : PomUtils.TYPE.values()) {
+      if (type.getElement().equals(name)) {
+        return type;
+      }
+    }
+    return null;
+  }
+
+  private static XMLInputFactory createXmlInputFactory() {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    return factory;
+  }
+
+  private static class Block {
+    private final PomUtils.TYPE type;
+    private final int depth;
+    private final int line;
+    private String groupId;
+    private String artifactId;
+    private String version;
+    private int artifactIdLine;
+    private int versionLine;
+
+    Block(PomUtils.TYPE type, int depth, int line) {
+      this.type = type;
+      this.depth = depth;
+      this.line = line;
+    }
+
+    /**
+     * @return true if the element was a coordinate and its text has been read
+     */
+    boolean collect(String name, XMLStreamReader reader, int lineNumber) throws XMLStreamException {
+      if ("groupId".equals(name)) {
+        groupId = reader.getElementText().trim();
+      } else if ("artifactId".equals(name)) {
+        artifactId = reader.getElementText().trim();
+        artifactIdLine = lineNumber;
+      } else if ("version".equals(name)) {
+        version = reader.getElementText().trim();
+        versionLine = lineNumber;
+      } else {
+        return false;
+      }
+      return true;
+    }
+  }
+}
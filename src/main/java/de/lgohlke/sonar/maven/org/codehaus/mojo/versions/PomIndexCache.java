@@ -0,0 +1,106 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import com.google.common.collect.Maps;
+import de.lgohlke.sonar.PomSourceImporter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.sonar.api.BatchExtension;
+import org.sonar.api.batch.InstantiationStrategy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * shares one {@link PomIndex} per pom between all sensors and modules of a batch, keyed by the file of the pom or by the
+ * hash of its imported source; used by every sensor which maps a result back to a line of the pom
+ * <p/>
+ * only the line index is cached, no element model: the sensors read the elements from the model of the
+ * {@link org.apache.maven.project.MavenProject}, which maven has already parsed with its input locations
+ *
+ * @author Lars Gohlke
+ */
+@Slf4j
+@InstantiationStrategy(InstantiationStrategy.PER_BATCH)
+public class PomIndexCache implements BatchExtension {
+  private final ConcurrentMap<String, PomIndex> indexes = Maps.newConcurrentMap();
+
+  /**
+   * keys the pom on disk by its canonical path, last modification and length, so a cached pom is not read at all and
+   * a new one is streamed once for indexing it, its source is never held in memory; falls back to
+   * {@link PomSourceImporter#getSourceOfPom()} if the pom cannot be read
+   */
+  public PomIndex getIndex(PomSourceImporter pomSourceImporter) {
+    File pom = pomSourceImporter.getPomOnDisk();
+    if (pom != null) {
+      try {
+        String key = pom.getCanonicalPath() + ':' + pom.lastModified() + ':' + pom.length();
+        PomIndex index = indexes.get(key);
+        if (index != null) {
+          return index;
+        }
+        InputStream stream = pomSourceImporter.openPomStream();
+        if (stream != null) {
+          try {
+            return putIfAbsent(key, PomIndex.create(stream));
+          } finally {
+            IOUtils.closeQuietly(stream);
+          }
+        }
+      } catch (IOException e) {
+        log.warn("could not read pom, using its imported source: {}", e.getMessage());
+      }
+    }
+    return getIndex(pomSourceImporter.getSourceOfPom());
+  }
+
+  /**
+   * @return the cached index for this source, an empty index if there is no source
+   */
+  public PomIndex getIndex(String source) {
+    if (source == null) {
+      return PomIndex.create("");
+    }
+
+    String hash = DigestUtils.sha256Hex(source);
+    PomIndex index = indexes.get(hash);
+    if (index == null) {
+      index = putIfAbsent(hash, PomIndex.create(source));
+    }
+    return index;
+  }
+
+  private PomIndex putIfAbsent(String key, PomIndex created) {
+    PomIndex index = indexes.putIfAbsent(key, created);
+    if (index == null) {
+      log.debug("indexed pom {}", key);
+      index = created;
+    }
+    return index;
+  }
+
+  public int size() {
+    return indexes.size();
+  }
+}
@@ -19,12 +19,12 @@
  */
 package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
 
-import com.google.common.base.Joiner;
 import org.apache.maven.model.Dependency;
-import org.codehaus.mojo.animal_sniffer.IgnoreJRERequirement;
+import org.apache.maven.model.InputLocation;
+import org.apache.maven.model.InputLocationTracker;
 import org.fest.util.Preconditions;
 
-import java.util.Arrays;
+import java.io.File;
 
 /**
  * User: lars
@@ -34,70 +34,79 @@ public final class PomUtils {
   public enum TYPE {
     plugin {
       @Override
-      String getStart() {
-        return "<plugin>";
+      String getElement() {
+        return "plugin";
       }
-
+    },
+    reportPlugin {
+      @Override
+      String getElement() {
+        return "plugin";
+      }
+    },
+    dependency {
+      @Override
+      String getElement() {
+        return "dependency";
+      }
+    },
+    managedDependency {
+      @Override
+      String getElement() {
+        return "dependency";
+      }
+    },
+    pluginDependency {
       @Override
-      String getEnd() {
-        return "</plugin>";
+      String getElement() {
+        return "dependency";
+      }
+    },
+    extension {
+      @Override
+      String getElement() {
+        return "extension";
+      }
+    },
+    parent {
+      @Override
+      String getElement() {
+        return "parent";
       }
     };
 
-    abstract String getStart();
-
-    abstract String getEnd();
+    /**
+     * @return the name of the element enclosing the coordinates
+     */
+    abstract String getElement();
   }
 
   private PomUtils() {
   }
 
+  /**
+   * builds a {@link PomIndex} for a single lookup, use {@link PomIndex#create(String)} for repeated lookups
+   */
   public static int getLine(String source, Dependency dependency, TYPE type) {
     Preconditions.checkNotNull(source);
     Preconditions.checkNotNull(dependency);
-    String[] lines = source.split("\\r?\\n");
-
-    String groupd = "<groupId>" + dependency.getGroupId() + "</groupId>";
-    String artifact = "<artifactId>" + dependency.getArtifactId() + "</artifactId>";
-    String version = "";
-    if (dependency.getVersion() != null && dependency.getVersion().length() > 0) {
-      version = "<version>" + dependency.getVersion() + "</version>";
-    }
-
-    String token = version.length() > 0 ? version : artifact;
-
-    for (int i = 0; i < lines.length; i++) {
-      if (lines[i].contains(token)) {
-        if (containsEntry(lines, i, type, groupd, artifact, version)) {
-          return i + 1;
-        }
-      }
-    }
-    return 0;
-  }
-
-  @IgnoreJRERequirement
-  private static boolean containsEntry(String[] lines, int currentPosition, TYPE type, String group, String artifact, String version) {
-
-    int start = findStartOrEndOfBlock(lines, currentPosition, -1, type);
-    int end = findStartOrEndOfBlock(lines, currentPosition, +1, type);
-
-    String[] parts = Arrays.copyOfRange(lines, start, end);
-    String fullBlock = Joiner.on("").join(parts);
-
-    return fullBlock.contains(version) && fullBlock.contains(artifact) && fullBlock.contains(group);
+    return PomIndex.create(source).getLine(dependency, type);
   }
 
-  private static int findStartOrEndOfBlock(String[] lines, int currentPosition, int step, TYPE type) {
-    int i = currentPosition;
-    int limitToSearch = lines.length;
-    while (i > 0 && Math.abs(currentPosition - i) <= limitToSearch) {
-      if (lines[i].contains(type.getStart()) || lines[i].contains(type.getEnd())) {
-        return i;
-      } else {
-        i += step;
-      }
+  /**
+   * @return the line of the element <tt>field</tt> as tracked by the maven model, 0 if it was not tracked or was read
+   *         from another pom than the given one, e.g. from a parent
+   */
+  public static int getLine(InputLocationTracker tracker, String field, File pom) {
+    Preconditions.checkNotNull(tracker);
+    InputLocation location = tracker.getLocation(field);
+    if (pom == null || location == null || location.getLineNumber() <= 0 || location.getSource() == null) {
+      return 0;
+    }
+    String source = location.getSource().getLocation();
+    if (source == null || !new File(source).getAbsoluteFile().equals(pom.getAbsoluteFile())) {
+      return 0;
     }
-    return -1;
+    return location.getLineNumber();
   }
 }
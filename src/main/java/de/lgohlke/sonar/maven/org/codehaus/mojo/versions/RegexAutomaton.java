@@ -0,0 +1,757 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * deterministic automaton for the union of a list of regex rules, a value is matched in time linear to its length
+ * no matter how many rules are combined
+ * <p/>
+ * only the regular subset of {@link java.util.regex.Pattern} is understood: literals, <tt>.</tt>, character classes
+ * with ranges and negation, <tt>\d \w \s</tt> (and their negations), groups, alternation and greedy or reluctant
+ * quantifiers; use {@link #isSupported(String)} to find out if a rule can be compiled
+ * <p/>
+ * once a rule has reached a trailing <tt>.*</tt> every further char is accepted, so all such states are merged into one
+ * accepting state; otherwise the rules which already matched would multiply the states of the union
+ * <p/>
+ * the automaton works on chars and merges states assuming values without line terminators, values which are not
+ * {@link #isMatchable(CharSequence) matchable} have to be matched by {@link java.util.regex.Pattern}
+ *
+ * @author Lars Gohlke
+ */
+final class RegexAutomaton {
+  static final int MAX_STATES = 10000;
+  private static final int MAX_REPETITION = 100;
+  private static final int ASCII = 128;
+
+  private final char[] boundaries;
+  private final int[] asciiClasses = new int[ASCII];
+  private final int[] transitions;
+  private final boolean[] accepting;
+  private final int classCount;
+
+  private RegexAutomaton(char[] boundaries, int[] transitions, boolean[] accepting) {
+    this.boundaries = boundaries;
+    this.transitions = transitions;
+    this.accepting = accepting;
+    this.classCount = boundaries.length;
+    for (char c = 0; c < ASCII; c++) {
+      asciiClasses[c] = classOf(boundaries, c);
+    }
+  }
+
+  static boolean isSupported(String regex) {
+    try {
+      new Parser(regex).parse();
+      return true;
+    } catch (UnsupportedRegexException e) {
+      return false;
+    }
+  }
+
+  /**
+   * @throws IllegalArgumentException      if one of the rules is not supported
+   * @throws StateLimitExceededException if the union needs more than {@link #MAX_STATES} states
+   */
+  static RegexAutomaton compile(List<String> regexList) {
+    Nfa nfa = new Nfa();
+    int start = nfa.newState();
+    int end = nfa.newState();
+    for (String regex : regexList) {
+      Node node;
+      try {
+        node = new Parser(regex).parse();
+      } catch (UnsupportedRegexException e) {
+        throw new IllegalArgumentException("unsupported regex " + regex, e);
+      }
+      int[] fragment = node.build(nfa);
+      nfa.addEpsilon(start, fragment[0]);
+      nfa.addEpsilon(fragment[1], end);
+    }
+    return nfa.toDfa(start, end);
+  }
+
+  /**
+   * @return <tt>false</tt> if the value contains surrogate pairs or line terminators
+   */
+  static boolean isMatchable(CharSequence value) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (Character.isHighSurrogate(c) || Character.isLowSurrogate(c) || CharRanges.LINE_TERMINATORS.contains(c)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @param value a {@link #isMatchable(CharSequence) matchable} value
+   */
+  boolean matches(CharSequence value) {
+    int state = 0;
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      int charClass = c < ASCII ? asciiClasses[c] : classOf(boundaries, c);
+      state = transitions[state * classCount + charClass];
+      if (state < 0) {
+        return false;
+      }
+    }
+    return accepting[state];
+  }
+
+  int getStateCount() {
+    return accepting.length;
+  }
+
+  /**
+   * the characters are partitioned into classes starting at each boundary, all chars of a class behave the same
+   */
+  private static int classOf(char[] boundaries, char c) {
+    int index = Arrays.binarySearch(boundaries, c);
+    return index >= 0 ? index : -index - 2;
+  }
+
+  static final class StateLimitExceededException extends RuntimeException {
+    StateLimitExceededException(String message) {
+      super(message);
+    }
+  }
+
+  private static final class UnsupportedRegexException extends Exception {
+    UnsupportedRegexException(String regex, int position) {
+      super("unsupported construct at position " + position + " of " + regex);
+    }
+  }
+
+  /**
+   * sorted, disjoint and inclusive char ranges [from0, to0, from1, to1, ...]
+   */
+  private static final class CharRanges {
+    private static final CharRanges DIGIT = new CharRanges(new char[]{'0', '9'});
+    private static final CharRanges WORD = new CharRanges(new char[]{'0', '9', 'A', 'Z', '_', '_', 'a', 'z'});
+    private static final CharRanges SPACE = new CharRanges(new char[]{'\t', '\r', ' ', ' '});
+    private static final CharRanges LINE_TERMINATORS =
+        new CharRanges(new char[]{'\n', '\n', '\r', '\r', '\u0085', '\u0085', '\u2028', '\u2029'});
+    private static final CharRanges DOT = LINE_TERMINATORS.complement();
+
+    private final char[] ranges;
+
+    private CharRanges(char[] ranges) {
+      this.ranges = ranges;
+    }
+
+    static CharRanges of(char from, char to) {
+      return new CharRanges(new char[]{from, to});
+    }
+
+    CharRanges complement() {
+      List<Character> result = Lists.newArrayList();
+      int next = Character.MIN_VALUE;
+      for (int i = 0; i < ranges.length; i += 2) {
+        if (ranges[i] > next) {
+          result.add((char) next);
+          result.add((char) (ranges[i] - 1));
+        }
+        next = ranges[i + 1] + 1;
+      }
+      if (next <= Character.MAX_VALUE) {
+        result.add((char) next);
+        result.add(Character.MAX_VALUE);
+      }
+      return new CharRanges(toArray(result));
+    }
+
+    static CharRanges union(List<CharRanges> list) {
+      List<char[]> pairs = Lists.newArrayList();
+      for (CharRanges charRanges : list) {
+        for (int i = 0; i < charRanges.ranges.length; i += 2) {
+          pairs.add(new char[]{charRanges.ranges[i], charRanges.ranges[i + 1]});
+        }
+      }
+      Collections.sort(pairs, new Comparator<char[]>() {
+        @Override
+        public int compare(char[] o1, char[] o2) {
+          return o1[0] - o2[0];
+        }
+      });
+      List<Character> result = Lists.newArrayList();
+      for (char[] pair : pairs) {
+        int last = result.size() - 1;
+        if (last > 0 && pair[0] <= result.get(last) + 1) {
+          if (pair[1] > result.get(last)) {
+            result.set(last, pair[1]);
+          }
+        } else {
+          result.add(pair[0]);
+          result.add(pair[1]);
+        }
+      }
+      return new CharRanges(toArray(result));
+    }
+
+    boolean containsAll(CharRanges other) {
+      for (int i = 0; i < other.ranges.length; i += 2) {
+        boolean covered = false;
+        for (int j = 0; j < ranges.length && !covered; j += 2) {
+          covered = ranges[j] <= other.ranges[i] && other.ranges[i + 1] <= ranges[j + 1];
+        }
+        if (!covered) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    boolean contains(char c) {
+      for (int i = 0; i < ranges.length && ranges[i] <= c; i += 2) {
+        if (c <= ranges[i + 1]) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private static char[] toArray(List<Character> list) {
+      char[] array = new char[list.size()];
+      for (int i = 0; i < array.length; i++) {
+        array[i] = list.get(i);
+      }
+      return array;
+    }
+  }
+
+  /**
+   * recursive descent parser building a syntax tree, everything outside of the regular subset is rejected
+   */
+  private static final class Parser {
+    private final String regex;
+    private int position;
+
+    Parser(String regex) {
+      this.regex = regex;
+    }
+
+    Node parse() throws UnsupportedRegexException {
+      Node node = parseAlternation();
+      if (position < regex.length()) {
+        throw unsupported();
+      }
+      return node;
+    }
+
+    private Node parseAlternation() throws UnsupportedRegexException {
+      List<Node> branches = Lists.newArrayList();
+      branches.add(parseConcatenation());
+      while (peek() == '|') {
+        position++;
+        branches.add(parseConcatenation());
+      }
+      return branches.size() == 1 ? branches.get(0) : new Alternation(branches);
+    }
+
+    private Node parseConcatenation() throws UnsupportedRegexException {
+      List<Node> nodes = Lists.newArrayList();
+      while (position < regex.length() && peek() != '|' && peek() != ')') {
+        nodes.add(parseQuantified());
+      }
+      return new Concatenation(nodes);
+    }
+
+    private Node parseQuantified() throws UnsupportedRegexException {
+      Node atom = parseAtom();
+      int min;
+      int max;
+      switch (peek()) {
+        case '*':
+          min = 0;
+          max = -1;
+          position++;
+          break;
+        case '+':
+          min = 1;
+          max = -1;
+          position++;
+          break;
+        case '?':
+          min = 0;
+          max = 1;
+          position++;
+          break;
+        case '{':
+          position++;
+          min = parseNumber();
+          max = min;
+          if (peek() == ',') {
+            position++;
+            max = peek() == '}' ? -1 : parseNumber();
+          }
+          if (peek() != '}' || (max >= 0 && max < min) || Math.max(min, max) > MAX_REPETITION) {
+            throw unsupported();
+          }
+          position++;
+          break;
+        default:
+          return atom;
+      }
+      // reluctant quantifiers accept the same values with matches(), possessive ones do not
+      if (peek() == '?') {
+        position++;
+      }
+      if (isQuantifier(peek())) {
+        throw unsupported();
+      }
+      return new Repetition(atom, min, max);
+    }
+
+    private Node parseAtom() throws UnsupportedRegexException {
+      char c = next();
+      switch (c) {
+        case '(':
+          if (peek() == '?') {
+            position++;
+            if (next() != ':') {
+              throw unsupported();
+            }
+          }
+          Node group = parseAlternation();
+          if (next() != ')') {
+            throw unsupported();
+          }
+          return group;
+        case '[':
+          return new CharSet(parseCharClass());
+        case '.':
+          return new CharSet(CharRanges.DOT);
+        case '\\':
+          return new CharSet(parseEscape());
+        default:
+          if (isQuantifier(c) || "^$)]}".indexOf(c) >= 0 || isSurrogate(c)) {
+            throw unsupported();
+          }
+          return new CharSet(CharRanges.of(c, c));
+      }
+    }
+
+    private CharRanges parseCharClass() throws UnsupportedRegexException {
+      boolean negated = false;
+      if (peek() == '^') {
+        negated = true;
+        position++;
+      }
+      List<CharRanges> items = Lists.newArrayList();
+      do {
+        char c = next();
+        if (c == '[' || (c == '&' && peek() == '&') || isSurrogate(c)) {
+          throw unsupported();
+        }
+        if (c == ']' && items.isEmpty()) {
+          throw unsupported();
+        }
+        CharRanges from;
+        if (c == '\\') {
+          from = parseEscape();
+        } else {
+          from = CharRanges.of(c, c);
+        }
+        if (peek() == '-' && position + 1 < regex.length() && regex.charAt(position + 1) != ']') {
+          position++;
+          char to = next();
+          if (to == '\\') {
+            CharRanges escaped = parseEscape();
+            if (escaped.ranges.length != 2 || escaped.ranges[0] != escaped.ranges[1]) {
+              throw unsupported();
+            }
+            to = escaped.ranges[0];
+          }
+          if (from.ranges.length != 2 || from.ranges[0] != from.ranges[1] || to < from.ranges[0] || to == '[') {
+            throw unsupported();
+          }
+          from = CharRanges.of(from.ranges[0], to);
+        }
+        items.add(from);
+      } while (peek() != ']');
+      position++;
+      CharRanges union = CharRanges.union(items);
+      return negated ? union.complement() : union;
+    }
+
+    private CharRanges parseEscape() throws UnsupportedRegexException {
+      char c = next();
+      switch (c) {
+        case 'd':
+          return CharRanges.DIGIT;
+        case 'D':
+          return CharRanges.DIGIT.complement();
+        case 'w':
+          return CharRanges.WORD;
+        case 'W':
+          return CharRanges.WORD.complement();
+        case 's':
+          return CharRanges.SPACE;
+        case 'S':
+          return CharRanges.SPACE.complement();
+        case 't':
+          return CharRanges.of('\t', '\t');
+        case 'n':
+          return CharRanges.of('\n', '\n');
+        case 'r':
+          return CharRanges.of('\r', '\r');
+        case 'f':
+          return CharRanges.of('\f', '\f');
+        default:
+          // escaped letters and digits are classes, back references or quotes
+          if (c < ASCII && !Character.isLetterOrDigit(c)) {
+            return CharRanges.of(c, c);
+          }
+          throw unsupported();
+      }
+    }
+
+    private int parseNumber() throws UnsupportedRegexException {
+      int start = position;
+      while (position < regex.length() && Character.isDigit(regex.charAt(position)) && position - start < 4) {
+        position++;
+      }
+      if (start == position) {
+        throw unsupported();
+      }
+      return Integer.parseInt(regex.substring(start, position));
+    }
+
+    private static boolean isSurrogate(char c) {
+      return Character.isHighSurrogate(c) || Character.isLowSurrogate(c);
+    }
+
+    private static boolean isQuantifier(char c) {
+      return c == '*' || c == '+' || c == '?' || c == '{';
+    }
+
+    private char peek() {
+      return position < regex.length() ? regex.charAt(position) : 0;
+    }
+
+    private char next() throws UnsupportedRegexException {
+      if (position >= regex.length()) {
+        throw unsupported();
+      }
+      return regex.charAt(position++);
+    }
+
+    private UnsupportedRegexException unsupported() {
+      return new UnsupportedRegexException(regex, position);
+    }
+  }
+
+  private interface Node {
+    /**
+     * @return start and end state of the fragment
+     */
+    int[] build(Nfa nfa);
+  }
+
+  private static final class CharSet implements Node {
+    private final CharRanges ranges;
+
+    CharSet(CharRanges ranges) {
+      this.ranges = ranges;
+    }
+
+    @Override
+    public int[] build(Nfa nfa) {
+      int start = nfa.newState();
+      int end = nfa.newState();
+      nfa.addTransition(start, ranges, end);
+      return new int[]{start, end};
+    }
+  }
+
+  private static final class Concatenation implements Node {
+    private final List<Node> nodes;
+
+    Concatenation(List<Node> nodes) {
+      this.nodes = nodes;
+    }
+
+    @Override
+    public int[] build(Nfa nfa) {
+      int start = nfa.newState();
+      int end = start;
+      for (Node node : nodes) {
+        int[] fragment = node.build(nfa);
+        nfa.addEpsilon(end, fragment[0]);
+        end = fragment[1];
+      }
+      return new int[]{start, end};
+    }
+  }
+
+  private static final class Alternation implements Node {
+    private final List<Node> branches;
+
+    Alternation(List<Node> branches) {
+      this.branches = branches;
+    }
+
+    @Override
+    public int[] build(Nfa nfa) {
+      int start = nfa.newState();
+      int end = nfa.newState();
+      for (Node branch : branches) {
+        int[] fragment = branch.build(nfa);
+        nfa.addEpsilon(start, fragment[0]);
+        nfa.addEpsilon(fragment[1], end);
+      }
+      return new int[]{start, end};
+    }
+  }
+
+  private static final class Repetition implements Node {
+    private final Node node;
+    private final int min;
+    private final int max;
+
+    Repetition(Node node, int min, int max) {
+      this.node = node;
+      this.min = min;
+      this.max = max;
+    }
+
+    @Override
+    public int[] build(Nfa nfa) {
+      int start = nfa.newState();
+      int end = start;
+      for (int i = 0; i < min; i++) {
+        int[] fragment = node.build(nfa);
+        nfa.addEpsilon(end, fragment[0]);
+        end = fragment[1];
+      }
+      if (max < 0) {
+        int[] fragment = node.build(nfa);
+        nfa.addEpsilon(end, fragment[0]);
+        nfa.addEpsilon(fragment[1], end);
+      } else {
+        int last = nfa.newState();
+        for (int i = min; i < max; i++) {
+          int[] fragment = node.build(nfa);
+          nfa.addEpsilon(end, fragment[0]);
+          nfa.addEpsilon(end, last);
+          end = fragment[1];
+        }
+        nfa.addEpsilon(end, last);
+        end = last;
+      }
+      return new int[]{start, end};
+    }
+  }
+
+  /**
+   * thompson construction, each state has either char transitions or epsilon transitions
+   */
+  private static final class Nfa {
+    private final List<List<Integer>> epsilons = Lists.newArrayList();
+    private final List<CharRanges> ranges = Lists.newArrayList();
+    private final List<Integer> targets = Lists.newArrayList();
+    private final List<BitSet> closures = Lists.newArrayList();
+
+    int newState() {
+      epsilons.add(Lists.<Integer>newArrayList());
+      ranges.add(null);
+      targets.add(-1);
+      return epsilons.size() - 1;
+    }
+
+    void addEpsilon(int from, int to) {
+      epsilons.get(from).add(to);
+    }
+
+    void addTransition(int from, CharRanges charRanges, int to) {
+      ranges.set(from, charRanges);
+      targets.set(from, to);
+    }
+
+    /**
+     * subset construction over the char classes induced by all range boundaries
+     */
+    RegexAutomaton toDfa(int start, int end) {
+      char[] boundaries = collectBoundaries();
+      BitSet universal = universalStates(end);
+      // accepts every value without line terminators, it is not keyed by its states to keep it apart from real subsets
+      BitSet acceptAll = single(end);
+
+      Map<BitSet, Integer> stateIds = Maps.newHashMap();
+      List<BitSet> states = Lists.newArrayList();
+      List<int[]> rows = Lists.newArrayList();
+      Deque<BitSet> pending = new ArrayDeque<BitSet>();
+      int acceptAllId = -1;
+
+      BitSet initial = closure(start);
+      if (isAcceptingAll(initial, universal, end)) {
+        initial = acceptAll;
+        acceptAllId = 0;
+      } else {
+        stateIds.put(initial, 0);
+      }
+      states.add(initial);
+      pending.add(initial);
+
+      while (!pending.isEmpty()) {
+        BitSet current = pending.poll();
+        int[] row = new int[boundaries.length];
+        if (current == acceptAll) {
+          Arrays.fill(row, acceptAllId);
+          rows.add(row);
+          continue;
+        }
+        for (int charClass = 0; charClass < boundaries.length; charClass++) {
+          BitSet next = move(current, boundaries[charClass]);
+          if (next.isEmpty()) {
+            row[charClass] = -1;
+            continue;
+          }
+          boolean acceptingAll = isAcceptingAll(next, universal, end);
+          Integer id = acceptingAll ? (acceptAllId < 0 ? null : Integer.valueOf(acceptAllId)) : stateIds.get(next);
+          if (id == null) {
+            if (states.size() >= MAX_STATES) {
+              throw new StateLimitExceededException("automaton needs more than " + MAX_STATES + " states");
+            }
+            id = states.size();
+            if (acceptingAll) {
+              next = acceptAll;
+              acceptAllId = id;
+            } else {
+              stateIds.put(next, id);
+            }
+            states.add(next);
+            pending.add(next);
+          }
+          row[charClass] = id;
+        }
+        rows.add(row);
+      }
+
+      int[] transitions = new int[states.size() * boundaries.length];
+      boolean[] accepting = new boolean[states.size()];
+      for (int i = 0; i < states.size(); i++) {
+        System.arraycopy(rows.get(i), 0, transitions, i * boundaries.length, boundaries.length);
+        accepting[i] = states.get(i).get(end);
+      }
+      return new RegexAutomaton(boundaries, transitions, accepting);
+    }
+
+    private char[] collectBoundaries() {
+      TreeSet<Character> boundaries = new TreeSet<Character>();
+      boundaries.add(Character.MIN_VALUE);
+      for (CharRanges charRanges : ranges) {
+        if (charRanges != null) {
+          for (int i = 0; i < charRanges.ranges.length; i += 2) {
+            boundaries.add(charRanges.ranges[i]);
+            if (charRanges.ranges[i + 1] < Character.MAX_VALUE) {
+              boundaries.add((char) (charRanges.ranges[i + 1] + 1));
+            }
+          }
+        }
+      }
+      return CharRanges.toArray(Lists.newArrayList(boundaries));
+    }
+
+    /**
+     * states in front of a loop over at least all chars but line terminators, from which the end can be reached
+     * without reading another char, like the state before the last <tt>.</tt> of <tt>a.*</tt>
+     */
+    private BitSet universalStates(int end) {
+      BitSet universal = new BitSet();
+      for (int state = 0; state < ranges.size(); state++) {
+        CharRanges charRanges = ranges.get(state);
+        if (charRanges != null && charRanges.containsAll(CharRanges.DOT)) {
+          BitSet after = closure(targets.get(state));
+          if (after.get(state) && after.get(end)) {
+            universal.set(state);
+          }
+        }
+      }
+      return universal;
+    }
+
+    /**
+     * an accepting set with a universal state stays accepting for every further char but line terminators
+     */
+    private static boolean isAcceptingAll(BitSet states, BitSet universal, int end) {
+      return states.get(end) && states.intersects(universal);
+    }
+
+    /**
+     * @return the closure of the states reached by reading the char
+     */
+    private BitSet move(BitSet current, char c) {
+      BitSet next = new BitSet();
+      for (int state = current.nextSetBit(0); state >= 0; state = current.nextSetBit(state + 1)) {
+        CharRanges charRanges = ranges.get(state);
+        if (charRanges != null && charRanges.contains(c)) {
+          next.or(closure(targets.get(state)));
+        }
+      }
+      return next;
+    }
+
+    /**
+     * the states reachable from the state without reading a char, computed once per state
+     */
+    private BitSet closure(int state) {
+      while (closures.size() <= state) {
+        closures.add(null);
+      }
+      BitSet closure = closures.get(state);
+      if (closure == null) {
+        closure = single(state);
+        Deque<Integer> stack = new ArrayDeque<Integer>();
+        stack.push(state);
+        while (!stack.isEmpty()) {
+          for (Integer next : epsilons.get(stack.pop())) {
+            if (!closure.get(next)) {
+              closure.set(next);
+              stack.push(next);
+            }
+          }
+        }
+        closures.set(state, closure);
+      }
+      return closure;
+    }
+
+    private static BitSet single(int state) {
+      BitSet set = new BitSet();
+      set.set(state);
+      return set;
+    }
+  }
+}
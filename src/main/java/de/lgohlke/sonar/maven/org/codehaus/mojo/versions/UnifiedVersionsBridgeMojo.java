@@ -0,0 +1,217 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import de.lgohlke.sonar.maven.BridgeMojo;
+import de.lgohlke.sonar.maven.Goal;
+import de.lgohlke.sonar.maven.Maven3SonarEmbedder;
+import lombok.Setter;
+import org.apache.maven.artifact.metadata.ArtifactMetadataSource;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.mojo.versions.DisplayPluginUpdatesMojo;
+import org.codehaus.mojo.versions.api.VersionsHelper;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * gathers plugin, dependency and parent updates in one execution, the project is built and interpolated only once
+ * <p/>
+ * takes over the goal display-plugin-updates, as this mojo needs the most components; the other bridge mojos get
+ * the parameters and components injected into this one
+ *
+ * @author Lars Gohlke
+ */
+@Goal("display-plugin-updates")
+@SuppressWarnings("deprecation")
+public class UnifiedVersionsBridgeMojo extends DisplayPluginUpdatesMojo implements BridgeMojo<UnifiedVersionsExecution.ResultHandler> {
+  private static final String PLUGIN_KEY = Plugin.constructKey("org.codehaus.mojo", "versions-maven-plugin");
+  private static final String CLI_EXECUTION_ID = "default-cli";
+
+  @Setter
+  private UnifiedVersionsExecution.ResultHandler resultHandler;
+  private ArtifactMetadataSource undecoratedMetadataSource;
+  private boolean metadataSourceDecorated;
+
+  @Override
+  public void execute() throws MojoExecutionException, MojoFailureException {
+    // created once, so all updates are looked up with the same helper
+    getHelper();
+
+    DisplayPluginUpdatesSensor.ResultTransferHandler pluginUpdatesHandler = resultHandler.getPluginUpdatesHandler();
+    if (pluginUpdatesHandler != null) {
+      DisplayPluginUpdatesBridgeMojo mojo = createPluginUpdatesMojo();
+      mojo.setResultHandler(pluginUpdatesHandler);
+      mojo.execute();
+    }
+
+    DisplayDependencyUpdatesSensor.DisplayDependencyUpdatesResultHandler dependencyUpdatesHandler = resultHandler.getDependencyUpdatesHandler();
+    if (dependencyUpdatesHandler != null) {
+      DisplayDependencyUpdatesBridgeMojo mojo = createDependencyUpdatesMojo();
+      mojo.setResultHandler(dependencyUpdatesHandler);
+      mojo.execute();
+    }
+
+    UpdateParentPomSensor.ResultHandler parentUpdateHandler = resultHandler.getParentUpdateHandler();
+    if (parentUpdateHandler != null) {
+      UpdateParentBridgeMojo mojo = createParentUpdateMojo();
+      mojo.setResultHandler(parentUpdateHandler);
+      // the parent is only looked up, the pom is not rewritten
+      mojo.update(null);
+    }
+  }
+
+  DisplayPluginUpdatesBridgeMojo createPluginUpdatesMojo() {
+    DisplayPluginUpdatesBridgeMojo mojo = copyInjectedFields(this, new DisplayPluginUpdatesBridgeMojo());
+    mojo.setLookupConfiguration(resultHandler.getLookupConfiguration());
+    return mojo;
+  }
+
+  DisplayDependencyUpdatesBridgeMojo createDependencyUpdatesMojo() {
+    DisplayDependencyUpdatesBridgeMojo mojo = copyInjectedFields(this, new DisplayDependencyUpdatesBridgeMojo());
+    String goal = goalOf(DisplayDependencyUpdatesBridgeMojo.class);
+    mojo.setProcessDependencyManagement(getBooleanParameter(goal, "processDependencyManagement"));
+    mojo.setProcessDependencies(getBooleanParameter(goal, "processDependencies"));
+    Boolean allowSnapshots = toBoolean(getPomParameter(goal, "allowSnapshots"));
+    if (allowSnapshots != null) {
+      mojo.setAllowSnapshots(allowSnapshots);
+    }
+    mojo.setLookupConfiguration(resultHandler.getLookupConfiguration());
+    return mojo;
+  }
+
+  UpdateParentBridgeMojo createParentUpdateMojo() {
+    UpdateParentBridgeMojo mojo = copyInjectedFields(this, new UpdateParentBridgeMojo());
+    String goal = goalOf(UpdateParentBridgeMojo.class);
+    mojo.setParentVersion(getParameter(goal, "parentVersion"));
+    Boolean allowSnapshots = toBoolean(getPomParameter(goal, "allowSnapshots"));
+    if (allowSnapshots != null) {
+      mojo.setAllowSnapshots(allowSnapshots);
+    }
+    mojo.setLookupConfiguration(resultHandler.getLookupConfiguration());
+    return mojo;
+  }
+
+  /**
+   * the only place the {@link VersionMetadataCache} and the {@link LocalMirrorMetadataSource} are put in front of the
+   * metadata source, once for the lifetime of the mojo; the decorated source and the helper built on it are copied into
+   * the delegates
+   */
+  @Override
+  public synchronized VersionsHelper getHelper() throws MojoExecutionException {
+    if (!metadataSourceDecorated) {
+      undecoratedMetadataSource = artifactMetadataSource;
+      String mirrorPath = getSessionProperty(Maven3SonarEmbedder.LOCAL_MIRROR_PROPERTY);
+      ArtifactMetadataSource withMirror = LocalMirrorMetadataSource.decorate(undecoratedMetadataSource, mirrorPath);
+      artifactMetadataSource = VersionMetadataCache.getDefault().decorate(withMirror, mirrorPath);
+      metadataSourceDecorated = true;
+    }
+    return super.getHelper();
+  }
+
+  /**
+   * the parameters of the delegates are not part of the configuration of this goal, maven drops them from the
+   * configuration of this execution; so they are read from the pom like maven would configure the delegate goal, and
+   * then from the user and system properties of the session, like maven evaluates their expressions
+   *
+   * @return null if the parameter is not set
+   */
+  String getParameter(final String goal, final String name) {
+    String value = getPomParameter(goal, name);
+    return value != null ? value : getSessionProperty(name);
+  }
+
+  /**
+   * the configuration of the versions-maven-plugin in the pom, overridden by its executions of the goal and by the
+   * execution of the command line, the project model has already interpolated the values
+   *
+   * @return null if the parameter is not configured
+   */
+  String getPomParameter(final String goal, final String name) {
+    MavenProject project = getProject();
+    Plugin plugin = project == null ? null : project.getPlugin(PLUGIN_KEY);
+    if (plugin == null) {
+      return null;
+    }
+    Xpp3Dom configuration = (Xpp3Dom) plugin.getConfiguration();
+    for (PluginExecution execution : plugin.getExecutions()) {
+      if (execution.getConfiguration() != null
+          && (CLI_EXECUTION_ID.equals(execution.getId()) || execution.getGoals().contains(goal))) {
+        // merging writes into the dominant configuration, which belongs to the project model
+        configuration = Xpp3Dom.mergeXpp3Dom(new Xpp3Dom((Xpp3Dom) execution.getConfiguration()), configuration);
+      }
+    }
+    Xpp3Dom parameter = configuration == null ? null : configuration.getChild(name);
+    return parameter == null ? null : parameter.getValue();
+  }
+
+  /**
+   * @return null if the property is not set
+   */
+  String getSessionProperty(final String name) {
+    if (session == null) {
+      return null;
+    }
+    String value = session.getUserProperties().getProperty(name);
+    return value != null ? value : session.getSystemProperties().getProperty(name);
+  }
+
+  private Boolean getBooleanParameter(final String goal, final String name) {
+    return toBoolean(getParameter(goal, name));
+  }
+
+  private static Boolean toBoolean(final String value) {
+    return value == null ? null : Boolean.valueOf(value);
+  }
+
+  private static String goalOf(final Class<? extends BridgeMojo<?>> bridgeMojoClass) {
+    return bridgeMojoClass.getAnnotation(Goal.class).value();
+  }
+
+  /**
+   * copies all fields of the classes source and target have in common
+   */
+  static <T> T copyInjectedFields(final Object source, final T target) {
+    for (Class<?> type = source.getClass(); type != null && type != Object.class; type = type.getSuperclass()) {
+      if (type.isInstance(target)) {
+        for (Field field : type.getDeclaredFields()) {
+          if (!Modifier.isStatic(field.getModifiers())) {
+            copyField(field, source, target);
+          }
+        }
+      }
+    }
+    return target;
+  }
+
+  private static void copyField(final Field field, final Object source, final Object target) {
+    try {
+      field.setAccessible(true);
+      field.set(target, field.get(source));
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException("could not copy " + field, e);
+    }
+  }
+}
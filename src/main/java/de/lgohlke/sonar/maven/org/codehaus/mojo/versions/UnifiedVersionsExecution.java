@@ -0,0 +1,127 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import de.lgohlke.sonar.MavenPlugin;
+import de.lgohlke.sonar.maven.BridgeMojoMapper;
+import de.lgohlke.sonar.maven.ResultTransferHandler;
+import de.lgohlke.sonar.maven.internals.MavenPluginExecutorProxyInjection;
+import de.lgohlke.sonar.maven.internals.MavenPluginHandlerFactory;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.sonar.api.BatchExtension;
+import org.sonar.api.batch.InstantiationStrategy;
+import org.sonar.api.batch.maven.MavenPluginHandler;
+import org.sonar.api.config.Settings;
+import org.sonar.api.resources.ProjectFileSystem;
+import org.sonar.batch.scan.maven.MavenPluginExecutor;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static de.lgohlke.sonar.maven.org.codehaus.mojo.versions.Configuration.BASE_IDENTIFIER;
+
+/**
+ * runs the versions-maven-plugin once per module for all versions sensors, instead of once per sensor
+ * <p/>
+ * the active sensors register their {@link ResultTransferHandler}s, the first sensor asking for a
+ * {@link MavenPluginHandler} gets the goal of the {@link UnifiedVersionsBridgeMojo}, which fills all registered handlers;
+ * the other sensors get none, their results are already there
+ * <p/>
+ * besides the handlers the bridge mojo gets the {@link LookupConfiguration} of the module injected
+ * <p/>
+ * with a positive {@link MavenPlugin#VERSION_CACHE_TTL} the resolved versions are also kept in the sonar working
+ * directory of the module
+ *
+ * @author Lars Gohlke
+ */
+@Slf4j
+@InstantiationStrategy(InstantiationStrategy.PER_PROJECT)
+public class UnifiedVersionsExecution implements BatchExtension {
+  @Getter
+  @Setter
+  public static class ResultHandler implements ResultTransferHandler {
+    private volatile DisplayPluginUpdatesSensor.ResultTransferHandler pluginUpdatesHandler;
+    private volatile DisplayDependencyUpdatesSensor.DisplayDependencyUpdatesResultHandler dependencyUpdatesHandler;
+    private volatile UpdateParentPomSensor.ResultHandler parentUpdateHandler;
+    private volatile LookupConfiguration lookupConfiguration = LookupConfiguration.SEQUENTIAL;
+  }
+
+  private final MavenPluginExecutor mavenPluginExecutor;
+  private final ProjectFileSystem fileSystem;
+  private final Settings settings;
+  @Getter
+  private final ResultHandler resultHandler = new ResultHandler();
+  private final BridgeMojoMapper<ResultHandler> mojoMapper =
+      new BridgeMojoMapper<ResultHandler>(UnifiedVersionsBridgeMojo.class, resultHandler);
+  private Object owner;
+  private MavenPluginHandler handler;
+
+  public UnifiedVersionsExecution(MavenPluginExecutor mavenPluginExecutor, ProjectFileSystem fileSystem, Settings settings) {
+    this.mavenPluginExecutor = mavenPluginExecutor;
+    this.fileSystem = fileSystem;
+    this.settings = settings;
+  }
+
+  void register(DisplayPluginUpdatesSensor.ResultTransferHandler handler) {
+    resultHandler.setPluginUpdatesHandler(checkNotNull(handler));
+  }
+
+  void register(DisplayDependencyUpdatesSensor.DisplayDependencyUpdatesResultHandler handler) {
+    resultHandler.setDependencyUpdatesHandler(checkNotNull(handler));
+  }
+
+  void register(UpdateParentPomSensor.ResultHandler handler) {
+    resultHandler.setParentUpdateHandler(checkNotNull(handler));
+  }
+
+  /**
+   * sonar asks each sensor for its handler more than once, the maven plugins configurator does before the sensors run;
+   * so the first sensor asking becomes the owner and gets the handler on every call
+   *
+   * @return the handler running the unified bridge mojo for the owner, null for all other sensors
+   */
+  public synchronized MavenPluginHandler claimMavenPluginHandler(final Object sensor) {
+    checkNotNull(sensor);
+    if (owner == null) {
+      owner = sensor;
+      log.debug("running {} once for all versions sensors, owned by {}", mojoMapper.getGoal(), sensor);
+      MavenPluginExecutorProxyInjection.inject(mavenPluginExecutor, getClass().getClassLoader(), mojoMapper);
+      VersionMetadataCache.getDefault().usePersistentStore(createPersistentStore());
+      resultHandler.setLookupConfiguration(LookupConfiguration.fromSettings(settings));
+      handler = MavenPluginHandlerFactory.createHandler(BASE_IDENTIFIER + mojoMapper.getGoal());
+    }
+    return owner == sensor ? handler : null;
+  }
+
+  /**
+   * @return null if the persistent cache is disabled
+   */
+  PersistentVersionStore createPersistentStore() {
+    int timeToLiveHours = settings.getInt(MavenPlugin.VERSION_CACHE_TTL);
+    if (timeToLiveHours <= 0) {
+      return null;
+    }
+    File directory = new File(fileSystem.getSonarWorkingDirectory(), PersistentVersionStore.DIRECTORY);
+    return new PersistentVersionStore(directory, TimeUnit.HOURS.toMillis(timeToLiveHours));
+  }
+}
@@ -21,6 +21,7 @@ package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
 
 import de.lgohlke.sonar.maven.BridgeMojo;
 import de.lgohlke.sonar.maven.Goal;
+import lombok.AccessLevel;
 import lombok.Setter;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.metadata.ArtifactMetadataRetrievalException;
@@ -32,11 +33,15 @@ import org.apache.maven.plugin.MojoFailureException;
 import org.codehaus.mojo.versions.UpdateParentMojo;
 import org.codehaus.mojo.versions.rewriting.ModifiedPomXMLEventReader;
 
+import java.util.concurrent.Callable;
+
 
 @Goal("update-parent")
 @SuppressWarnings("deprecation")
 public class UpdateParentBridgeMojo extends UpdateParentMojo implements BridgeMojo<UpdateParentPomSensor.ResultHandler> {
 
+  @Setter(AccessLevel.PACKAGE)
+  private LookupConfiguration lookupConfiguration = LookupConfiguration.SEQUENTIAL;
   @Setter
   private UpdateParentPomSensor.ResultHandler resultHandler;
 
@@ -51,22 +56,30 @@ public class UpdateParentBridgeMojo extends UpdateParentMojo implements BridgeMo
         version = parentVersion;
       }
 
-      VersionRange versionRange;
+      final VersionRange versionRange;
       try {
         versionRange = VersionRange.createFromVersionSpec(version);
       } catch (InvalidVersionSpecificationException e) {
         throw new MojoExecutionException("Invalid version range specification: " + version, e);
       }
 
-      Artifact artifact = artifactFactory.createDependencyArtifact(getProject().getParent().getGroupId(),
+      final Artifact artifact = artifactFactory.createDependencyArtifact(getProject().getParent().getGroupId(),
           getProject().getParent().getArtifactId(),
           versionRange, "pom", null, null);
 
       ArtifactVersion artifactVersion;
       try {
-        artifactVersion = findLatestVersion(artifact, versionRange, null, false);
+        // on the executor like the lookups of the other bridge mojos
+        artifactVersion = new ParallelVersionLookup(getHelper(), lookupConfiguration).lookup(new Callable<ArtifactVersion>() {
+          @Override
+          public ArtifactVersion call() throws Exception {
+            return findLatestVersion(artifact, versionRange, null, false);
+          }
+        });
       } catch (ArtifactMetadataRetrievalException e) {
         throw new MojoExecutionException(e.getMessage(), e);
+      } catch (InvalidVersionSpecificationException e) {
+        throw new MojoExecutionException(e.getMessage(), e);
       }
 
       if (!shouldApplyUpdate(artifact, currentVersion, artifactVersion)) {
@@ -78,6 +91,14 @@ public class UpdateParentBridgeMojo extends UpdateParentMojo implements BridgeMo
     }
   }
 
+  void setParentVersion(final String parentVersion) {
+    this.parentVersion = parentVersion;
+  }
+
+  void setAllowSnapshots(final Boolean allowSnapshots) {
+    this.allowSnapshots = allowSnapshots;
+  }
+
   private boolean isPartOfReactorProject() {
     return reactorProjects.contains(getProject().getParent());
   }
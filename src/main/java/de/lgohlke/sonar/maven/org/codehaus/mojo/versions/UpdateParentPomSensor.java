@@ -19,6 +19,7 @@
  */
 package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
 
+import de.lgohlke.sonar.PomSourceImporter;
 import de.lgohlke.sonar.maven.MavenBaseSensor;
 import de.lgohlke.sonar.maven.ResultTransferHandler;
 import de.lgohlke.sonar.maven.Rules;
@@ -27,15 +28,16 @@ import de.lgohlke.sonar.maven.org.codehaus.mojo.versions.rules.ParentPomVersion;
 import lombok.Getter;
 import lombok.Setter;
 import org.apache.maven.artifact.versioning.ArtifactVersion;
+import org.apache.maven.model.Parent;
 import org.apache.maven.project.MavenProject;
 import org.sonar.api.batch.SensorContext;
+import org.sonar.api.batch.maven.MavenPluginHandler;
 import org.sonar.api.profiles.RulesProfile;
 import org.sonar.api.resources.File;
 import org.sonar.api.resources.Project;
 import org.sonar.api.rules.Rule;
 import org.sonar.api.rules.Violation;
 import org.sonar.batch.scan.maven.MavenPluginExecutor;
-import org.sonar.plugins.xml.language.Xml;
 
 import static de.lgohlke.sonar.maven.org.codehaus.mojo.versions.Configuration.BASE_IDENTIFIER;
 
@@ -50,14 +52,37 @@ public class UpdateParentPomSensor extends MavenBaseSensor<UpdateParentPomSensor
   @Setter
   @Getter
   public static class ResultHandler implements ResultTransferHandler {
-    private String currentVersion;
-    private ArtifactVersion newerVersion;
+    private volatile String currentVersion;
+    private volatile ArtifactVersion newerVersion;
   }
 
+  private final PomSourceImporter pomSourceImporter;
+  private final PomIndexCache pomIndexCache;
+  private final UnifiedVersionsExecution unifiedVersionsExecution;
+
   public UpdateParentPomSensor(RulesProfile rulesProfile,
                                MavenPluginExecutor mavenPluginExecutor,
-                               MavenProject mavenProject) {
+                               MavenProject mavenProject,
+                               PomSourceImporter pomSourceImporter,
+                               PomIndexCache pomIndexCache,
+                               UnifiedVersionsExecution unifiedVersionsExecution) {
     super(rulesProfile, mavenPluginExecutor, mavenProject);
+    this.pomSourceImporter = pomSourceImporter;
+    this.pomIndexCache = pomIndexCache;
+    this.unifiedVersionsExecution = unifiedVersionsExecution;
+  }
+
+  /**
+   * @see UnifiedVersionsExecution
+   */
+  @Override
+  protected void injectMojoMapper() {
+    unifiedVersionsExecution.register(getMojoMapper().getResultTransferHandler());
+  }
+
+  @Override
+  public MavenPluginHandler getMavenPluginHandler(final Project project) {
+    return unifiedVersionsExecution.claimMavenPluginHandler(this);
   }
 
   @Override
@@ -65,14 +90,36 @@ public class UpdateParentPomSensor extends MavenBaseSensor<UpdateParentPomSensor
     ResultHandler resultHandler = getMojoMapper().getResultTransferHandler();
     if (resultHandler.getNewerVersion() != null) {
       Rule rule = createRuleFrom(ParentPomVersion.class);
-      File file = new File("", getMavenProject().getFile().getName());
-      file.setLanguage(Xml.INSTANCE);
+      File file = pomSourceImporter.getPomFile();
 
       Violation violation = Violation.create(rule, file);
-      violation.setLineId(1);
+      violation.setLineId(getLine(resultHandler.getCurrentVersion()));
 
       violation.setMessage(ParentPomVersion.DESCRIPTION + ", currently used is " + resultHandler.getCurrentVersion() + " but " + resultHandler.getNewerVersion() + " is available");
       context.saveViolation(violation);
     }
   }
+
+  /**
+   * @return the line of the parent version, preferably as tracked by the maven model, the first line if the parent could
+   *         not be found
+   */
+  private int getLine(String currentVersion) {
+    Parent parent = getMavenProject().getModel().getParent();
+    if (parent != null) {
+      int trackedLine = PomUtils.getLine(parent, "version", getMavenProject().getFile());
+      if (trackedLine > 0) {
+        return trackedLine;
+      }
+      PomIndex pomIndex = pomIndexCache.getIndex(pomSourceImporter);
+      int line = pomIndex.getLine(DependencyUtils.createDependency(parent.getGroupId(), parent.getArtifactId(), currentVersion), PomUtils.TYPE.parent);
+      if (line == 0) {
+        line = pomIndex.getLine(DependencyUtils.createDependency(parent.getGroupId(), parent.getArtifactId(), null), PomUtils.TYPE.parent);
+      }
+      if (line > 0) {
+        return line;
+      }
+    }
+    return 1;
+  }
 }
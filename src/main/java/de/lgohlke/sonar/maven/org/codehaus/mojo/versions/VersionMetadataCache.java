@@ -0,0 +1,166 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.metadata.ArtifactMetadataSource;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.versioning.ArtifactVersion;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * remembers the available versions of an artifact for all bridge mojos of the JVM, keyed by groupId:artifactId, the
+ * repositories asked and the local mirror whose versions are added, so a version list is fetched once per analysis even
+ * if several mojos or modules need it
+ * <p/>
+ * the cache lives as long as the batch, it is invalidated by {@link VersionMetadataCacheLifecycle}; entries missing in
+ * memory are looked up in the {@link PersistentVersionStore} if there is one
+ *
+ * @author Lars Gohlke
+ */
+@Slf4j
+public class VersionMetadataCache {
+  private static final VersionMetadataCache DEFAULT = new VersionMetadataCache();
+
+  private final ConcurrentMap<List<Object>, List<ArtifactVersion>> versions = Maps.newConcurrentMap();
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+  private volatile PersistentVersionStore persistentStore;
+
+  /**
+   * the cache shared by all bridge mojos of this JVM
+   */
+  public static VersionMetadataCache getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * @return a metadata source answering version lookups from this cache, the source itself if it is already cached
+   */
+  public ArtifactMetadataSource decorate(final ArtifactMetadataSource source) {
+    return decorate(source, null);
+  }
+
+  /**
+   * @param mirrorPath the local mirror the source adds versions from, part of the key as the versions differ with it
+   * @return a metadata source answering version lookups from this cache, the source itself if it is already cached
+   */
+  public ArtifactMetadataSource decorate(final ArtifactMetadataSource source, final String mirrorPath) {
+    if (source == null || source instanceof CachingArtifactMetadataSource) {
+      return source;
+    }
+    return new CachingArtifactMetadataSource(source, this, mirrorPath);
+  }
+
+  /**
+   * @return a copy of the cached versions, null if not cached
+   */
+  List<ArtifactVersion> get(final Artifact artifact, final ArtifactRepository localRepository, final List<ArtifactRepository> remoteRepositories,
+                            final String mirrorPath) {
+    List<Object> key = key(artifact, localRepository, remoteRepositories, mirrorPath);
+    List<ArtifactVersion> cached = versions.get(key);
+    if (cached == null) {
+      cached = readPersistent(key);
+    }
+    if (cached == null) {
+      missCount.incrementAndGet();
+      return null;
+    }
+    hitCount.incrementAndGet();
+    return Lists.newArrayList(cached);
+  }
+
+  void put(final Artifact artifact, final ArtifactRepository localRepository, final List<ArtifactRepository> remoteRepositories,
+           final String mirrorPath, final List<ArtifactVersion> artifactVersions) {
+    List<Object> key = key(artifact, localRepository, remoteRepositories, mirrorPath);
+    versions.putIfAbsent(key, Collections.unmodifiableList(Lists.newArrayList(artifactVersions)));
+    PersistentVersionStore store = persistentStore;
+    if (store != null) {
+      store.write(key.toString(), artifactVersions);
+    }
+  }
+
+  /**
+   * @param store null disables the persistent lookups
+   */
+  void usePersistentStore(final PersistentVersionStore store) {
+    this.persistentStore = store;
+  }
+
+  private List<ArtifactVersion> readPersistent(final List<Object> key) {
+    PersistentVersionStore store = persistentStore;
+    if (store == null) {
+      return null;
+    }
+    List<ArtifactVersion> stored = store.read(key.toString());
+    if (stored == null) {
+      return null;
+    }
+    List<ArtifactVersion> cached = Collections.unmodifiableList(stored);
+    List<ArtifactVersion> previous = versions.putIfAbsent(key, cached);
+    return previous == null ? cached : previous;
+  }
+
+  /**
+   * forgets the versions held in memory and detaches the persistent store, the stored versions expire by their age
+   */
+  public void invalidateAll() {
+    log.debug("invalidating {} cached version lists, {} hits, {} misses", new Object[]{versions.size(), hitCount.get(), missCount.get()});
+    persistentStore = null;
+    versions.clear();
+    hitCount.set(0);
+    missCount.set(0);
+  }
+
+  public int size() {
+    return versions.size();
+  }
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  private static List<Object> key(final Artifact artifact, final ArtifactRepository localRepository, final List<ArtifactRepository> remoteRepositories,
+                                  final String mirrorPath) {
+    List<String> remotes = Lists.newArrayList();
+    if (remoteRepositories != null) {
+      for (ArtifactRepository remoteRepository : remoteRepositories) {
+        remotes.add(repositoryKey(remoteRepository));
+      }
+    }
+    return Arrays.<Object>asList(artifact.getGroupId() + ":" + artifact.getArtifactId(), repositoryKey(localRepository), remotes, mirrorPath);
+  }
+
+  private static String repositoryKey(final ArtifactRepository repository) {
+    return repository == null ? null : repository.getId() + "@" + repository.getUrl();
+  }
+}
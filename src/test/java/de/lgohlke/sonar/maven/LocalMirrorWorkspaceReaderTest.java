@@ -0,0 +1,104 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven;
+
+import com.google.common.io.Files;
+import org.sonatype.aether.util.artifact.DefaultArtifact;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class LocalMirrorWorkspaceReaderTest {
+  private File mirror;
+  private LocalMirrorWorkspaceReader reader;
+
+  @BeforeMethod
+  public void setUp() throws IOException {
+    mirror = Files.createTempDir();
+    touch("org/example/lib/1.0/lib-1.0.pom");
+    touch("org/example/lib/1.0/lib-1.0.jar");
+    touch("org/example/lib/1.1/lib-1.1.pom");
+    touch("org/example/lib/2.0-SNAPSHOT/lib-2.0-SNAPSHOT.pom");
+    touch("org/example/lib/2.0-SNAPSHOT/lib-2.0-SNAPSHOT-sources.jar");
+    new File(mirror, "org/example/lib/3.0").mkdirs();
+    reader = new LocalMirrorWorkspaceReader(mirror);
+  }
+
+  @AfterMethod
+  public void tearDown() throws IOException {
+    Files.deleteRecursively(mirror.getCanonicalFile());
+  }
+
+  @Test
+  public void shouldFindVersionsWithMatchingFile() {
+    assertThat(reader.findVersions(new DefaultArtifact("org.example:lib:pom:[0,)"))).containsExactly("1.0", "1.1", "2.0-SNAPSHOT");
+    assertThat(reader.findVersions(new DefaultArtifact("org.example:lib:jar:[0,)"))).containsExactly("1.0");
+  }
+
+  @Test
+  public void shouldOrderVersionsNumerically() throws IOException {
+    touch("org/example/lib/1.10/lib-1.10.pom");
+    touch("org/example/lib/1.9/lib-1.9.pom");
+
+    assertThat(reader.findVersions(new DefaultArtifact("org.example:lib:pom:[0,)"))).containsExactly("1.0", "1.1", "1.9", "1.10", "2.0-SNAPSHOT");
+  }
+
+  @Test
+  public void shouldFindNoVersionsOfUnknownArtifact() {
+    assertThat(reader.findVersions(new DefaultArtifact("org.example:other:pom:[0,)"))).isEmpty();
+  }
+
+  @Test
+  public void shouldFindArtifact() {
+    assertThat(reader.findArtifact(new DefaultArtifact("org.example:lib:jar:1.0"))).isEqualTo(file("org/example/lib/1.0/lib-1.0.jar"));
+    assertThat(reader.findArtifact(new DefaultArtifact("org.example:lib:jar:sources:2.0-SNAPSHOT"))).isEqualTo(file("org/example/lib/2.0-SNAPSHOT/lib-2.0-SNAPSHOT-sources.jar"));
+  }
+
+  @Test
+  public void shouldNotFindMissingArtifact() {
+    assertThat(reader.findArtifact(new DefaultArtifact("org.example:lib:jar:1.1"))).isNull();
+    assertThat(reader.findArtifact(new DefaultArtifact("org.example:lib:jar:3.0"))).isNull();
+  }
+
+  @Test
+  public void shouldUseMirrorAsRepository() {
+    assertThat(reader.getRepository().getContentType()).isEqualTo(LocalMirrorWorkspaceReader.CONTENT_TYPE);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void shouldFailOnMissingDirectory() {
+    new LocalMirrorWorkspaceReader(new File(mirror, "missing"));
+  }
+
+  private File file(String path) {
+    return new File(mirror.getAbsoluteFile(), path);
+  }
+
+  private void touch(String path) throws IOException {
+    File file = new File(mirror, path);
+    Files.createParentDirs(file);
+    Files.touch(file);
+  }
+}
@@ -19,7 +19,11 @@
  */
 package de.lgohlke.sonar.maven;
 
+import com.google.common.io.Files;
 import hudson.maven.MavenEmbedderException;
+import hudson.maven.MavenRequest;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.MavenExecutionRequest;
 import org.apache.maven.lifecycle.LifecyclePhaseNotFoundException;
 import org.apache.maven.plugin.MojoNotFoundException;
 import org.codehaus.plexus.logging.Logger;
@@ -29,6 +33,7 @@ import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 
 import java.io.File;
+import java.io.IOException;
 
 import static org.fest.assertions.api.Assertions.assertThat;
 
@@ -173,4 +178,154 @@ public class Maven3SonarEmbedderTest {
       assertThat(e.getCause()).isExactlyInstanceOf(MojoNotFoundException.class);
     }
   }
+
+  @Test
+  public void shouldExecuteAllGoalsInOneRequest() throws Exception {
+    Maven3SonarEmbedder embedder = Maven3SonarEmbedder.configure().
+        usePomFile("pom.xml").
+        goal("versions:display-dependency-updates").
+        goals("versions:display-plugin-updates", "versions:update-parent").
+        setAlternativeMavenHome(createFakeMavenHome()).
+        usePool(new MavenEmbedderPool(1)).
+        build();
+
+    assertThat(embedder.getMavenRequest().getGoals()).containsExactly(
+        "versions:display-dependency-updates", "versions:display-plugin-updates", "versions:update-parent");
+  }
+
+  @Test(expectedExceptions = IllegalStateException.class)
+  public void shouldFailOnEmptyGoalInList() throws Exception {
+    Maven3SonarEmbedder.configure().
+        usePomFile("pom.xml").
+        goals(goal, "").
+        setAlternativeMavenHome(createFakeMavenHome()).
+        usePool(new MavenEmbedderPool(1)).
+        build();
+  }
+
+  @Test
+  public void shouldSetThreadCount() throws Exception {
+    Maven3SonarEmbedder embedder = Maven3SonarEmbedder.configure().
+        goal(goal).
+        threads(4).
+        setAlternativeMavenHome(createFakeMavenHome()).
+        usePool(new MavenEmbedderPool(1)).
+        build();
+
+    assertThat(embedder.getMavenRequest().getThreadCount()).isEqualTo("4");
+  }
+
+  @Test
+  public void shouldSetThreadCountPerCore() throws Exception {
+    Maven3SonarEmbedder embedder = Maven3SonarEmbedder.configure().
+        goal(goal).
+        threadsPerCore(1.5f).
+        setAlternativeMavenHome(createFakeMavenHome()).
+        usePool(new MavenEmbedderPool(1)).
+        build();
+
+    assertThat(embedder.getMavenRequest().getThreadCount()).isEqualTo("1.5C");
+  }
+
+  @Test
+  public void shouldBuildSingleThreadedByDefault() throws Exception {
+    Maven3SonarEmbedder embedder = Maven3SonarEmbedder.configure().
+        goal(goal).
+        setAlternativeMavenHome(createFakeMavenHome()).
+        usePool(new MavenEmbedderPool(1)).
+        build();
+
+    assertThat(embedder.getMavenRequest().getThreadCount()).isNull();
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void shouldFailOnZeroThreads() {
+    Maven3SonarEmbedder.configure().threads(0);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void shouldFailOnNegativeThreadsPerCore() {
+    Maven3SonarEmbedder.configure().threadsPerCore(-1f);
+  }
+
+  @Test
+  public void shouldApplyThreadConfigurationPerCore() {
+    MavenExecutionRequest executionRequest = new DefaultMavenExecutionRequest();
+    Maven3SonarEmbedder.applyThreadConfiguration(new MavenRequest().setThreadCount("1.5C"), executionRequest);
+
+    assertThat(executionRequest.isThreadConfigurationPresent()).isTrue();
+    assertThat(executionRequest.isPerCoreThreadCount()).isTrue();
+    assertThat(executionRequest.getThreadCount()).isEqualTo("1.5");
+  }
+
+  @Test
+  public void shouldApplyFixedThreadConfiguration() {
+    MavenExecutionRequest executionRequest = new DefaultMavenExecutionRequest();
+    Maven3SonarEmbedder.applyThreadConfiguration(new MavenRequest().setThreadCount("4"), executionRequest);
+
+    assertThat(executionRequest.isPerCoreThreadCount()).isFalse();
+    assertThat(executionRequest.getThreadCount()).isEqualTo("4");
+  }
+
+  @Test
+  public void shouldNotApplyMissingThreadConfiguration() {
+    MavenExecutionRequest executionRequest = new DefaultMavenExecutionRequest();
+    Maven3SonarEmbedder.applyThreadConfiguration(new MavenRequest(), executionRequest);
+
+    assertThat(executionRequest.isThreadConfigurationPresent()).isFalse();
+  }
+
+  @Test
+  public void shouldConfigureOfflineRequest() throws Exception {
+    File mirror = new File("target/local-mirror");
+    mirror.mkdirs();
+    File localRepository = new File("target/local-repository");
+
+    Maven3SonarEmbedder embedder = Maven3SonarEmbedder.configure().
+        goal(goal).
+        offline(true).
+        useLocalRepository(localRepository).
+        useLocalMirror(mirror).
+        setAlternativeMavenHome(createFakeMavenHome()).
+        usePool(new MavenEmbedderPool(1)).
+        build();
+
+    MavenRequest request = embedder.getMavenRequest();
+    assertThat(request.isOffline()).isTrue();
+    assertThat(request.getLocalRepositoryPath()).isEqualTo(localRepository.getAbsolutePath());
+    assertThat(request.getWorkspaceReader()).isInstanceOf(LocalMirrorWorkspaceReader.class);
+    assertThat(request.getUserProperties().getProperty(Maven3SonarEmbedder.LOCAL_MIRROR_PROPERTY)).isEqualTo(mirror.getAbsolutePath());
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void shouldFailOnMissingLocalMirror() {
+    Maven3SonarEmbedder.configure().useLocalMirror(new File("target/missing-mirror"));
+  }
+
+  @Test
+  public void shouldApplyOfflineMode() {
+    MavenExecutionRequest executionRequest = new DefaultMavenExecutionRequest();
+    Maven3SonarEmbedder.applyOfflineMode(new MavenRequest().setOffline(true), executionRequest);
+
+    assertThat(executionRequest.isOffline()).isTrue();
+  }
+
+  @Test
+  public void shouldKeepOfflineModeOfSettings() {
+    MavenExecutionRequest executionRequest = new DefaultMavenExecutionRequest().setOffline(true);
+    Maven3SonarEmbedder.applyOfflineMode(new MavenRequest(), executionRequest);
+
+    assertThat(executionRequest.isOffline()).isTrue();
+  }
+
+  /**
+   * passes the checks of the builder, but cannot boot
+   */
+  private static File createFakeMavenHome() throws IOException {
+    File mavenHome = new File("target/fake-maven-home");
+    File m2Conf = new File(mavenHome, "bin/m2.conf");
+    Files.createParentDirs(m2Conf);
+    Files.touch(m2Conf);
+    return mavenHome;
+  }
 }
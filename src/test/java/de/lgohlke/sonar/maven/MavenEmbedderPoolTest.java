@@ -0,0 +1,140 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven;
+
+import hudson.maven.MavenEmbedder;
+import hudson.maven.MavenEmbedderException;
+import hudson.maven.MavenRequest;
+import org.codehaus.plexus.PlexusContainer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.fest.reflect.core.Reflection.field;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MavenEmbedderPoolTest {
+  private static final File MAVEN_HOME = new File("target/maven");
+  private static final int LOG_LEVEL = org.codehaus.plexus.logging.Logger.LEVEL_ERROR;
+
+  private int booted;
+  private MavenEmbedderPool pool;
+
+  @BeforeMethod
+  public void setUp() {
+    booted = 0;
+    pool = new MavenEmbedderPool(2, new MavenEmbedderPool.EmbedderFactory() {
+      @Override
+      public MavenEmbedder create(File mavenHome, int logLevel) {
+        booted++;
+        return mock(MavenEmbedder.class);
+      }
+    });
+  }
+
+  @Test
+  public void testReleasedEmbedderIsReused() throws MavenEmbedderException {
+    MavenEmbedder embedder = pool.lease(MAVEN_HOME, LOG_LEVEL);
+    pool.release(MAVEN_HOME, LOG_LEVEL, embedder);
+
+    assertThat(pool.lease(new File("target/../target/maven"), LOG_LEVEL)).isSameAs(embedder);
+    assertThat(booted).isEqualTo(1);
+  }
+
+  @Test
+  public void testLeasedEmbedderIsExclusive() throws MavenEmbedderException {
+    MavenEmbedder embedder = pool.lease(MAVEN_HOME, LOG_LEVEL);
+
+    assertThat(pool.lease(MAVEN_HOME, LOG_LEVEL)).isNotSameAs(embedder);
+    assertThat(booted).isEqualTo(2);
+  }
+
+  @Test
+  public void testKeyedByMavenHomeAndLogLevel() throws MavenEmbedderException {
+    MavenEmbedder embedder = pool.lease(MAVEN_HOME, LOG_LEVEL);
+    pool.release(MAVEN_HOME, LOG_LEVEL, embedder);
+
+    assertThat(pool.lease(MAVEN_HOME, org.codehaus.plexus.logging.Logger.LEVEL_DEBUG)).isNotSameAs(embedder);
+    assertThat(pool.lease(new File("target/other"), LOG_LEVEL)).isNotSameAs(embedder);
+    assertThat(pool.getIdleCount(MAVEN_HOME, LOG_LEVEL)).isEqualTo(1);
+  }
+
+  @Test
+  public void testIdleEmbeddersAreBounded() throws MavenEmbedderException {
+    for (int i = 0; i < 3; i++) {
+      pool.release(MAVEN_HOME, LOG_LEVEL, mock(MavenEmbedder.class));
+    }
+
+    assertThat(pool.getIdleCount(MAVEN_HOME, LOG_LEVEL)).isEqualTo(2);
+  }
+
+  @Test
+  public void testPrestart() throws MavenEmbedderException {
+    pool.prestart(MAVEN_HOME, LOG_LEVEL);
+
+    assertThat(booted).isEqualTo(2);
+    pool.lease(MAVEN_HOME, LOG_LEVEL);
+    assertThat(booted).isEqualTo(2);
+    assertThat(pool.getIdleCount(MAVEN_HOME, LOG_LEVEL)).isEqualTo(1);
+  }
+
+  @Test
+  public void testEmbedderIsDisposedIfPoolIsFull() throws MavenEmbedderException {
+    PlexusContainer container = mock(PlexusContainer.class);
+    pool.release(MAVEN_HOME, LOG_LEVEL, mock(MavenEmbedder.class));
+    pool.release(MAVEN_HOME, LOG_LEVEL, mock(MavenEmbedder.class));
+
+    pool.release(MAVEN_HOME, LOG_LEVEL, embedderWith(container));
+
+    verify(container).dispose();
+  }
+
+  @Test
+  public void testClearDisposesIdleEmbedders() {
+    PlexusContainer container = mock(PlexusContainer.class);
+    pool.release(MAVEN_HOME, LOG_LEVEL, embedderWith(container));
+
+    pool.clear();
+
+    verify(container).dispose();
+    assertThat(pool.getIdleCount(MAVEN_HOME, LOG_LEVEL)).isZero();
+  }
+
+  @Test
+  public void testBoundEmbedderIsNotRebound() throws MavenEmbedderException {
+    MavenRequest request = new MavenRequest();
+    MavenEmbedder embedder = mock(MavenEmbedder.class);
+    when(embedder.getMavenRequest()).thenReturn(request);
+
+    MavenEmbedderPool.bind(embedder, request);
+
+    assertThat(field("mavenRequest").ofType(MavenRequest.class).in(embedder).get()).isNull();
+  }
+
+  private static MavenEmbedder embedderWith(PlexusContainer container) {
+    MavenEmbedder embedder = mock(MavenEmbedder.class);
+    field("plexusContainer").ofType(PlexusContainer.class).in(embedder).set(container);
+    return embedder;
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven;
+
+import com.google.common.base.Ticker;
+import de.lgohlke.sonar.maven.MavenRunResult.Phase;
+import org.apache.maven.execution.ExecutionEvent;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class PhaseTimerTest {
+  private static class ManualTicker extends Ticker {
+    private long nanos;
+
+    @Override
+    public long read() {
+      return nanos;
+    }
+
+    void advanceMillis(long millis) {
+      nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+  }
+
+  private final ExecutionEvent event = mock(ExecutionEvent.class);
+  private ManualTicker ticker;
+  private PhaseTimer timer;
+
+  @BeforeMethod
+  public void setUp() {
+    ticker = new ManualTicker();
+    timer = new PhaseTimer(ticker);
+  }
+
+  @Test
+  public void shouldMeasurePhasesFromEvents() {
+    timer.projectDiscoveryStarted(event);
+    ticker.advanceMillis(30);
+    timer.sessionStarted(event);
+    timer.projectStarted(event);
+    ticker.advanceMillis(20);
+    timer.mojoStarted(event);
+    ticker.advanceMillis(100);
+    timer.mojoSucceeded(event);
+    ticker.advanceMillis(5);
+    timer.mojoStarted(event);
+    ticker.advanceMillis(50);
+    timer.mojoFailed(event);
+
+    MavenRunResult result = timer.toResult(TimeUnit.MILLISECONDS.toNanos(205));
+
+    assertThat(result.getDuration(Phase.PROJECT_BUILDING)).isEqualTo(30);
+    assertThat(result.getDuration(Phase.PLUGIN_SETUP)).isEqualTo(20);
+    assertThat(result.getDuration(Phase.MOJO_EXECUTION)).isEqualTo(150);
+    assertThat(result.getDuration(Phase.CONTAINER_BOOT)).isEqualTo(0);
+    assertThat(result.getTotalDuration()).isEqualTo(205);
+  }
+
+  @Test
+  public void shouldCountForkedMojosOnce() {
+    timer.mojoStarted(event);
+    ticker.advanceMillis(10);
+    timer.mojoStarted(event);
+    ticker.advanceMillis(10);
+    timer.mojoSucceeded(event);
+    ticker.advanceMillis(10);
+    timer.mojoSucceeded(event);
+
+    assertThat(timer.toResult(0).getDuration(Phase.MOJO_EXECUTION)).isEqualTo(30);
+  }
+
+  @Test
+  public void shouldMeasureSinceLastMojoEnd() {
+    assertThat(timer.getLastMojoEnd(42)).isEqualTo(42);
+
+    timer.mojoStarted(event);
+    ticker.advanceMillis(10);
+    timer.mojoSucceeded(event);
+    ticker.advanceMillis(15);
+    timer.addSince(Phase.SESSION_END, timer.getLastMojoEnd(timer.read()));
+
+    assertThat(timer.toResult(0).getDuration(Phase.SESSION_END)).isEqualTo(15);
+  }
+
+  @Test
+  public void shouldListAllPhases() {
+    timer.add(Phase.CONTAINER_BOOT, TimeUnit.MILLISECONDS.toNanos(7));
+
+    String text = timer.toResult(TimeUnit.MILLISECONDS.toNanos(7)).toString();
+
+    assertThat(text).startsWith("total 7 ms (container boot 7 ms, project building 0 ms");
+    assertThat(text).contains("session end 0 ms");
+  }
+}
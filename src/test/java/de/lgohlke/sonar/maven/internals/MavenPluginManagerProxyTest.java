@@ -0,0 +1,99 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.internals;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.MavenPluginManager;
+import org.apache.maven.plugin.Mojo;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.plugin.PluginConfigurationException;
+import org.apache.maven.plugin.descriptor.MojoDescriptor;
+import org.apache.maven.project.MavenProject;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MavenPluginManagerProxyTest {
+  private MavenPluginManager pluginManager;
+  private MavenSession session;
+  private MojoExecution mojoExecution;
+  private MavenPluginManagerProxy<MavenPluginManager> proxy;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    pluginManager = mock(MavenPluginManager.class);
+    session = mock(MavenSession.class);
+    mojoExecution = mock(MojoExecution.class);
+    when(mojoExecution.getGoal()).thenReturn("test");
+    when(mojoExecution.getMojoDescriptor()).thenReturn(mock(MojoDescriptor.class));
+    proxy = new MavenPluginManagerProxy<MavenPluginManager>(pluginManager, getClass().getClassLoader());
+  }
+
+  @Test
+  public void shouldConfigureBridgeMojoOfSequentialBuild() throws Exception {
+    PlexusContainerProxyTest.TestBridgeMojo mojo = new PlexusContainerProxyTest.TestBridgeMojo();
+    when(pluginManager.getConfiguredMojo(eq(Object.class), any(MavenSession.class), any(MojoExecution.class))).thenReturn(mojo);
+    when(session.getProjects()).thenReturn(Arrays.asList(mock(MavenProject.class), mock(MavenProject.class)));
+
+    assertThat(configureMojo()).isSameAs(mojo);
+  }
+
+  @Test
+  public void shouldConfigureBridgeMojoOfParallelBuildOfOneModule() throws Exception {
+    when(pluginManager.getConfiguredMojo(eq(Object.class), any(MavenSession.class), any(MojoExecution.class))).thenReturn(new PlexusContainerProxyTest.TestBridgeMojo());
+    when(session.isParallel()).thenReturn(true);
+    when(session.getProjects()).thenReturn(Collections.singletonList(mock(MavenProject.class)));
+
+    assertThat(configureMojo()).isInstanceOf(PlexusContainerProxyTest.TestBridgeMojo.class);
+  }
+
+  @Test
+  public void shouldConfigureOtherMojosOfParallelBuild() throws Exception {
+    Mojo mojo = mock(Mojo.class);
+    when(pluginManager.getConfiguredMojo(eq(Object.class), any(MavenSession.class), any(MojoExecution.class))).thenReturn(mojo);
+    when(session.isParallel()).thenReturn(true);
+    when(session.getProjects()).thenReturn(Arrays.asList(mock(MavenProject.class), mock(MavenProject.class)));
+
+    assertThat(configureMojo()).isSameAs(mojo);
+  }
+
+  @Test(expectedExceptions = PluginConfigurationException.class, expectedExceptionsMessageRegExp = ".*goal test.*parallel build of 2 modules.*")
+  public void shouldRejectBridgeMojoOfParallelBuildOfSeveralModules() throws Exception {
+    when(pluginManager.getConfiguredMojo(eq(Object.class), any(MavenSession.class), any(MojoExecution.class))).thenReturn(new PlexusContainerProxyTest.TestBridgeMojo());
+    when(session.isParallel()).thenReturn(true);
+    when(session.getProjects()).thenReturn(Arrays.asList(mock(MavenProject.class), mock(MavenProject.class)));
+
+    configureMojo();
+  }
+
+  private Object configureMojo() throws Exception {
+    Method method = MavenPluginManager.class.getMethod("getConfiguredMojo", Class.class, MavenSession.class, MojoExecution.class);
+    return proxy.invoke(null, method, new Object[]{Object.class, session, mojoExecution});
+  }
+}
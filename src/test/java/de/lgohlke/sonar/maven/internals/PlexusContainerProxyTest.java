@@ -0,0 +1,144 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.internals;
+
+import de.lgohlke.sonar.maven.BridgeMojo;
+import de.lgohlke.sonar.maven.BridgeMojoMapper;
+import de.lgohlke.sonar.maven.Goal;
+import de.lgohlke.sonar.maven.ResultTransferHandler;
+import lombok.Getter;
+import lombok.Setter;
+import org.codehaus.plexus.PlexusContainer;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PlexusContainerProxyTest {
+  public static class Handler implements ResultTransferHandler {
+  }
+
+  @Goal("test")
+  public static class TestBridgeMojo implements BridgeMojo<Handler> {
+    @Getter
+    @Setter
+    private volatile Handler resultHandler;
+  }
+
+  @Test
+  public void shouldInjectHandlerOnLookup() throws Exception {
+    PlexusContainer container = mock(PlexusContainer.class);
+    when(container.lookup(anyString())).thenReturn(new TestBridgeMojo());
+    PlexusContainerProxy<PlexusContainer> proxy = new PlexusContainerProxy<PlexusContainer>(container);
+    Handler handler = new Handler();
+    proxy.addInjection(new MojoInjection(new BridgeMojoMapper<Handler>(TestBridgeMojo.class, handler)));
+
+    TestBridgeMojo mojo = (TestBridgeMojo) proxy.invoke(null, lookupMethod(), new Object[]{"test"});
+
+    assertThat(mojo.getResultHandler()).isSameAs(handler);
+  }
+
+  @Test
+  public void shouldReplaceInjectionOfSameBridgeMojo() throws Exception {
+    PlexusContainer container = mock(PlexusContainer.class);
+    when(container.lookup(anyString())).thenReturn(new TestBridgeMojo());
+    PlexusContainerProxy<PlexusContainer> proxy = new PlexusContainerProxy<PlexusContainer>(container);
+    Handler second = new Handler();
+    proxy.addInjection(new MojoInjection(new BridgeMojoMapper<Handler>(TestBridgeMojo.class, new Handler())));
+    proxy.addInjection(new MojoInjection(new BridgeMojoMapper<Handler>(TestBridgeMojo.class, second)));
+
+    TestBridgeMojo mojo = (TestBridgeMojo) proxy.invoke(null, lookupMethod(), new Object[]{"test"});
+
+    assertThat(mojo.getResultHandler()).isSameAs(second);
+  }
+
+  @Test
+  public void shouldLookupWhileInjectionsAreAdded() throws Exception {
+    PlexusContainer container = mock(PlexusContainer.class);
+    when(container.lookup(anyString())).thenAnswer(new Answer<Object>() {
+      @Override
+      public Object answer(InvocationOnMock invocation) {
+        return new TestBridgeMojo();
+      }
+    });
+    final PlexusContainerProxy<PlexusContainer> proxy = new PlexusContainerProxy<PlexusContainer>(container);
+    proxy.addInjection(new MojoInjection(new BridgeMojoMapper<Handler>(TestBridgeMojo.class, new Handler())));
+
+    final int threads = 4;
+    final CountDownLatch start = new CountDownLatch(1);
+    final List<TestBridgeMojo> mojos = new CopyOnWriteArrayList<TestBridgeMojo>();
+    ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+    try {
+      List<Future<Void>> futures = new ArrayList<Future<Void>>();
+      futures.add(executor.submit(new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          start.await();
+          for (int i = 0; i < 1000; i++) {
+            proxy.addInjection(new MojoInjection(new BridgeMojoMapper<Handler>(TestBridgeMojo.class, new Handler())));
+          }
+          return null;
+        }
+      }));
+      for (int t = 0; t < threads; t++) {
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            start.await();
+            for (int i = 0; i < 1000; i++) {
+              mojos.add((TestBridgeMojo) proxy.invoke(null, lookupMethod(), new Object[]{"test"}));
+            }
+            return null;
+          }
+        }));
+      }
+      start.countDown();
+      for (Future<Void> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(mojos).hasSize(threads * 1000);
+    for (TestBridgeMojo mojo : mojos) {
+      assertThat(mojo.getResultHandler()).isNotNull();
+    }
+  }
+
+  private static Method lookupMethod() throws NoSuchMethodException {
+    return PlexusContainer.class.getMethod("lookup", String.class);
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import com.google.common.collect.ImmutableMap;
+import de.lgohlke.sonar.MavenPlugin;
+import de.lgohlke.sonar.maven.org.codehaus.mojo.versions.rules.DependencyVersion;
+import org.sonar.api.config.Settings;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class ArtifactFilterRegistryTest {
+  private static final String WHITELIST = DependencyVersion.RULE_PROPERTY_WHITELIST;
+  private static final String BLACKLIST = DependencyVersion.RULE_PROPERTY_BLACKLIST;
+
+  private ArtifactFilterRegistry registry;
+  private Settings settings;
+
+  @BeforeMethod
+  public void setUp() {
+    registry = new ArtifactFilterRegistry();
+    settings = Settings.createForComponent(DisplayDependencyUpdatesSensor.class);
+  }
+
+  @Test
+  public void testSameConfigurationSharesFilter() {
+    Map<String, String> params = ImmutableMap.of(WHITELIST, ".*", BLACKLIST, ".*RC.*");
+
+    ArtifactFilterSnapshot filter = getFilter(params);
+
+    assertThat(getFilter(ImmutableMap.of(WHITELIST, ".*", BLACKLIST, ".*RC.*"))).isSameAs(filter);
+    assertThat(registry.size()).isEqualTo(1);
+    assertThat(filter.acceptArtifact("org.test:test:1")).isTrue();
+    assertThat(filter.acceptArtifact("org.test:test:1-RC1")).isFalse();
+  }
+
+  @Test
+  public void testDifferentRuleParams() {
+    ArtifactFilterSnapshot filter = getFilter(ImmutableMap.of(WHITELIST, ".*", BLACKLIST, ""));
+    ArtifactFilterSnapshot otherFilter = getFilter(ImmutableMap.of(WHITELIST, ".*", BLACKLIST, ".*RC.*"));
+
+    assertThat(otherFilter).isNotSameAs(filter);
+    assertThat(registry.size()).isEqualTo(2);
+  }
+
+  @Test
+  public void testDifferentSettings() {
+    Map<String, String> params = ImmutableMap.of(WHITELIST, ".*", BLACKLIST, "");
+    ArtifactFilterSnapshot filter = getFilter(params);
+
+    settings.setProperty(DisplayDependencyUpdatesSensor.BLACKLIST_KEY, ".*RC.*");
+    ArtifactFilterSnapshot filterWithBlacklist = getFilter(params);
+
+    settings.setProperty(MavenPlugin.FILTER_CACHE_SIZE, 10);
+    ArtifactFilterSnapshot filterWithCache = getFilter(params);
+
+    assertThat(filterWithBlacklist).isNotSameAs(filter);
+    assertThat(filterWithBlacklist.acceptArtifact("org.test:test:1-RC1")).isFalse();
+    assertThat(filterWithCache).isNotSameAs(filterWithBlacklist);
+    assertThat(filterWithCache.acceptArtifact("org.test:test:1-RC1")).isFalse();
+  }
+
+  @Test
+  public void testAutomatonIsEnabledUnlessDisabled() {
+    Map<String, String> params = ImmutableMap.of(WHITELIST, ".*", BLACKLIST, ".*RC\\d+");
+    ArtifactFilterSnapshot filter = getFilter(params);
+
+    settings.setProperty(MavenPlugin.FILTER_AUTOMATON, false);
+    ArtifactFilterSnapshot filterWithoutAutomaton = getFilter(params);
+
+    assertThat(filter.isAutomatonEnabled()).isTrue();
+    assertThat(filterWithoutAutomaton).isNotSameAs(filter);
+    assertThat(filterWithoutAutomaton.isAutomatonEnabled()).isFalse();
+    assertThat(filterWithoutAutomaton.acceptArtifact("org.test:test:1-RC1")).isFalse();
+  }
+
+  private ArtifactFilterSnapshot getFilter(Map<String, String> params) {
+    return registry.getFilter(settings, DisplayDependencyUpdatesSensor.WHITELIST_KEY, DisplayDependencyUpdatesSensor.BLACKLIST_KEY,
+        params, WHITELIST, BLACKLIST);
+  }
+}
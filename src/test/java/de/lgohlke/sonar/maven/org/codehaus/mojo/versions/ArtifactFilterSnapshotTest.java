@@ -0,0 +1,115 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import com.google.common.collect.Lists;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class ArtifactFilterSnapshotTest {
+  @Test
+  public void testBuilder() {
+    ArtifactFilterSnapshot snapshot = ArtifactFilterSnapshot.builder()
+        .addWhitelistRegex(".*")
+        .addBlacklistRegex("[^:].*?:[^:].*?:[^:].*RC.*")
+        .build();
+
+    assertThat(snapshot.isAutomatonEnabled()).isTrue();
+    assertThat(snapshot.acceptArtifact("org.apache.karaf.RC:spring:3.0.0.M1")).isTrue();
+    assertThat(snapshot.acceptArtifact("org.apache.karaf.xy:spring:3.0.0.RC1")).isFalse();
+    assertThat(snapshot.acceptArtifact("org.test", "test", "1.0-RC1", "1.0")).isFalse();
+  }
+
+  @Test
+  public void testDecisionCacheKeysOnContent() {
+    ArtifactFilterSnapshot snapshot = ArtifactFilterSnapshot.builder()
+        .addWhitelistRegex(".*")
+        .addBlacklistRegex(".*RC.*")
+        .decisionCacheSize(8)
+        .build();
+
+    assertThat(snapshot.acceptArtifact("org.test", "test", "1.0", "1.1")).isTrue();
+    assertThat(snapshot.acceptArtifact("org.test", "test", "1.0", "1.1-RC1")).isFalse();
+    assertThat(snapshot.acceptArtifact("org.test", "test", "1.0", "1.1")).isTrue();
+    assertThat(snapshot.acceptArtifact("org.test:test:1.0" + ArtifactUpdate.NEWER_VERSION_SEPARATOR + "1.1-RC1")).isFalse();
+
+    assertThat(snapshot.getDecisionCacheMissCount()).isEqualTo(2);
+    assertThat(snapshot.getDecisionCacheHitCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void testSnapshotIsNotChangedByFilter() {
+    ArtifactFilter filter = new ArtifactFilter(".*");
+    ArtifactFilterSnapshot snapshot = filter.snapshot();
+
+    filter.addBlacklistRegex(".*RC.*");
+
+    assertThat(snapshot.getBlacklistRegexList()).isEmpty();
+    assertThat(snapshot.acceptArtifact("org.test:test:1-RC1")).isTrue();
+    assertThat(filter.snapshot()).isNotSameAs(snapshot);
+    assertThat(filter.acceptArtifact("org.test:test:1-RC1")).isFalse();
+  }
+
+  @Test(expectedExceptions = UnsupportedOperationException.class)
+  public void testRegexListsAreImmutable() {
+    ArtifactFilterSnapshot.builder().addWhitelistRegex(".*").build().getWhitelistRegexList().add("x");
+  }
+
+  @Test
+  public void testSharedBetweenThreads() throws Exception {
+    final ArtifactFilterSnapshot snapshot = ArtifactFilterSnapshot.builder()
+        .addWhitelistRegex("org\\..*")
+        .addBlacklistRegex(".*:.*:.*-RC\\d+")
+        .decisionCacheSize(16)
+        .build();
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Boolean>> results = Lists.newArrayList();
+      for (int thread = 0; thread < 8; thread++) {
+        results.add(executor.submit(new Callable<Boolean>() {
+          @Override
+          public Boolean call() {
+            boolean allCorrect = true;
+            for (int i = 0; i < 1000; i++) {
+              allCorrect &= snapshot.acceptArtifact("org.test", "test" + (i % 32), "1.0", "1.1");
+              allCorrect &= !snapshot.acceptArtifact("org.test:test" + (i % 32) + ":1.0-RC" + (i % 3));
+              allCorrect &= !snapshot.acceptArtifact("com.test:test:1.0");
+            }
+            return allCorrect;
+          }
+        }));
+      }
+      for (Future<Boolean> result : results) {
+        assertThat(result.get()).isTrue();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertThat(snapshot.getDecisionCacheHitCount() + snapshot.getDecisionCacheMissCount()).isEqualTo(8 * 3 * 1000);
+  }
+}
@@ -19,6 +19,7 @@
  */
 package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
 
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
 import org.testng.annotations.Test;
 
 import static org.fest.assertions.api.Assertions.assertThat;
@@ -74,4 +75,77 @@ public class ArtifactFilterTest {
     assertThat(filter.acceptArtifact("org.test:spring:3.0.0.RC1")).isFalse();
     assertThat(filter.acceptArtifact("org.test:test:1-spring")).isTrue();
   }
+
+  @Test
+  public void testRulesAddedAfterMatchingAreApplied() {
+    ArtifactFilter filter = new ArtifactFilter(".*");
+    assertThat(filter.acceptArtifact("org.test:test:1-RC1")).isTrue();
+
+    filter.addBlacklistRegex(".*RC.*");
+
+    assertThat(filter.acceptArtifact("org.test:test:1-RC1")).isFalse();
+    assertThat(filter.acceptArtifact("org.test:test:1")).isTrue();
+  }
+
+  @Test
+  public void testStructuredMatchingLikeUpdateString() {
+    ArtifactFilter filter = new ArtifactFilter(".*", "[^:].*?:[^:].*?:[^:].*RC.*");
+    filter.addBlacklistRegex(".*available: 4\\..*");
+
+    ArtifactUpdate rc = new ArtifactUpdate(DependencyUtils.createDependency("org.test", "test", "1.0-RC1"), new DefaultArtifactVersion("1.0"));
+    ArtifactUpdate major = new ArtifactUpdate(DependencyUtils.createDependency("org.test", "test", "3.0"), new DefaultArtifactVersion("4.0"));
+    ArtifactUpdate minor = new ArtifactUpdate(DependencyUtils.createDependency("org.test", "test", "3.0"), new DefaultArtifactVersion("3.1"));
+    ArtifactUpdate noVersion = new ArtifactUpdate(DependencyUtils.createDependency("org.test", "test", null), new DefaultArtifactVersion("3.1"));
+
+    for (ArtifactUpdate update : new ArtifactUpdate[]{rc, major, minor, noVersion}) {
+      assertThat(filter.acceptArtifact(update)).as(update.toString()).isEqualTo(filter.acceptArtifact(update.toString()));
+    }
+    assertThat(filter.acceptArtifact(minor)).isTrue();
+    assertThat(filter.acceptArtifact("org.test", "test", "1.0-RC1", "1.0")).isFalse();
+  }
+
+  @Test
+  public void testCoordinatesSequence() {
+    CoordinatesSequence sequence = new CoordinatesSequence().reset("g", "a", null, "2");
+
+    assertThat(sequence.toString()).isEqualTo("g:a:null has newer version available: 2");
+    assertThat(sequence.length()).isEqualTo(sequence.toString().length());
+    assertThat(sequence.charAt(4)).isEqualTo('n');
+    assertThat(sequence.subSequence(0, 3).toString()).isEqualTo("g:a");
+    assertThat(sequence.hashCode()).isEqualTo(sequence.toString().hashCode());
+
+    CoordinatesSequence copy = sequence.copy();
+    assertThat(new CoordinatesSequence().reset(sequence.toString())).isEqualTo(copy);
+    sequence.reset("g:a:1");
+    assertThat(copy.toString()).isEqualTo("g:a:null has newer version available: 2");
+    assertThat(copy).isNotEqualTo(sequence);
+  }
+
+  @Test
+  public void testDecisionCache() {
+    ArtifactFilter filter = new ArtifactFilter(".*", ".*RC.*").setDecisionCacheSize(2);
+
+    assertThat(filter.acceptArtifact("org.test:test:1")).isTrue();
+    assertThat(filter.acceptArtifact("org.test:test:1-RC1")).isFalse();
+    assertThat(filter.acceptArtifact("org.test:test:1")).isTrue();
+    assertThat(filter.acceptArtifact("org.test", "test", "1-RC1", "1")).isFalse();
+
+    assertThat(filter.getDecisionCacheHitCount()).isEqualTo(1);
+    assertThat(filter.getDecisionCacheMissCount()).isEqualTo(3);
+
+    // least recently used entry "org.test:test:1-RC1" has been evicted
+    assertThat(filter.acceptArtifact("org.test:test:1-RC1")).isFalse();
+    assertThat(filter.getDecisionCacheMissCount()).isEqualTo(4);
+  }
+
+  @Test
+  public void testDecisionCacheIsClearedWhenRulesChange() {
+    ArtifactFilter filter = new ArtifactFilter(".*").setDecisionCacheSize(10);
+    assertThat(filter.acceptArtifact("org.test:test:1-RC1")).isTrue();
+
+    filter.addBlacklistRegex(".*RC.*");
+
+    assertThat(filter.acceptArtifact("org.test:test:1-RC1")).isFalse();
+    assertThat(filter.getDecisionCacheHitCount()).isZero();
+  }
 }
@@ -0,0 +1,132 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class BudgetedRegexTest {
+  private static final String BACKTRACKING_VALUE = "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaac";
+
+  @DataProvider
+  public Object[][] ambiguousRepetitions() {
+    return new Object[][]{
+        {"(.*)*RC.*", true},
+        {"(a+)+b", true},
+        {"((ab)*c)+", true},
+        {"(x(a|b)+){2,}", true},
+        {"(a|aa)*b", true},
+        {"(a|a?)+", true},
+        {"(a|)+b", true},
+        {"(\\.|.)*x", true},
+        {"(?:a|ab)*c", true},
+        {"(a{1,3})+", true},
+        {"(alpha|beta)*", false},
+        {"(?:\\.a|b)+", false},
+        {"(?i)(a|b)+", false},
+        {"(a|aa)b", false},
+        {"(.*)RC.*", false},
+        {"(a+)?b", false},
+        {"(a{2})+", false},
+        {"\\(a+\\)+", false},
+        {"[(a+)]+", false},
+        {"[^:].*?:[^:].*?:[^:].*RC.*", false},
+    };
+  }
+
+  @Test(dataProvider = "ambiguousRepetitions")
+  public void testHasAmbiguousRepetition(String regex, boolean ambiguous) {
+    assertThat(BudgetedRegex.hasAmbiguousRepetition(regex)).as(regex).isEqualTo(ambiguous);
+  }
+
+  @Test(timeOut = 5000)
+  public void testAmbiguousAlternativesAreMatchedOnTheirOwn() {
+    BudgetedRegex regex = new BudgetedRegex(ImmutableList.of("(a|aa)*b", ".*c"), BudgetedRegex.DEFAULT_BUDGET, true);
+
+    assertThat(regex.matches(BACKTRACKING_VALUE)).isTrue();
+    assertThat(regex.matches("aab")).isTrue();
+    assertThat(regex.matches(BACKTRACKING_VALUE + "d")).isFalse();
+  }
+
+  @Test(timeOut = 5000)
+  public void testRuleExceedingBudgetIsSkipped() {
+    BudgetedRegex regex = new BudgetedRegex(ImmutableList.of("(a+)+b", ".*c"), BudgetedRegex.DEFAULT_BUDGET, true);
+
+    assertThat(regex.matches(BACKTRACKING_VALUE)).isTrue();
+    assertThat(regex.matches(BACKTRACKING_VALUE + "d")).isFalse();
+    assertThat(regex.getExceededRules()).containsOnly("(a+)+b");
+  }
+
+  @Test
+  public void testUnionExceedingBudgetIsMatchedRuleByRule() {
+    BudgetedRegex regex = new BudgetedRegex(ImmutableList.of("a.*d", "a.*c"), 50, true);
+
+    assertThat(regex.matches(BACKTRACKING_VALUE)).isTrue();
+    assertThat(regex.matches("abc")).isTrue();
+    assertThat(regex.matches("abe")).isFalse();
+    assertThat(regex.getExceededRules()).containsOnly("a.*d");
+  }
+
+  @Test
+  public void testUnionBudgetGrowsWithRules() {
+    ImmutableList.Builder<String> rules = ImmutableList.builder();
+    for (int i = 0; i < 50; i++) {
+      rules.add("x" + i + ".*");
+    }
+    BudgetedRegex regex = new BudgetedRegex(rules.add("a.*c").build(), 40, true);
+
+    assertThat(regex.matches(BACKTRACKING_VALUE)).isTrue();
+    assertThat(regex.matches("x7y")).isTrue();
+    assertThat(regex.getExceededRules()).isEmpty();
+  }
+
+  @Test
+  public void testUnionBudgetIsCapped() {
+    ImmutableList.Builder<String> rules = ImmutableList.builder();
+    for (int i = 0; i < 1000; i++) {
+      rules.add("x" + i + ".*");
+    }
+
+    assertThat(new BudgetedRegex(rules.build(), BudgetedRegex.DEFAULT_BUDGET, true).getUnionBudget()).isEqualTo(BudgetedRegex.MAX_UNION_BUDGET);
+    assertThat(new BudgetedRegex(ImmutableList.of("a.*"), BudgetedRegex.DEFAULT_BUDGET, true).getUnionBudget()).isEqualTo(BudgetedRegex.DEFAULT_BUDGET);
+  }
+
+  @Test
+  public void testCoordinatesAreCountedLikeStrings() {
+    BudgetedRegex regex = new BudgetedRegex(ImmutableList.of("a.*d", "a.*c"), 50, true);
+    CoordinatesSequence coordinates = new CoordinatesSequence();
+
+    assertThat(regex.matches(coordinates.reset(BACKTRACKING_VALUE))).isTrue();
+    assertThat(regex.matches(coordinates.reset("org.example", "lib", "1.0", "2.0"))).isFalse();
+    assertThat(regex.matches(coordinates.reset("abc"))).isTrue();
+    assertThat(regex.getExceededRules()).containsOnly("a.*d");
+  }
+
+  @Test(timeOut = 5000)
+  public void testFilterSurvivesBacktrackingBlacklist() {
+    ArtifactFilter filter = new ArtifactFilter(".*", "(.*\\.)*RC.*");
+
+    assertThat(filter.acceptArtifact("org.apache.karaf.features:spring:3.0.0.RC1")).isFalse();
+    assertThat(filter.acceptArtifact("a.b.c.d.e.f.g.h.i.j.k.l.m.n.o.p.q.r.s.t.u.v.w.x.y.z:spring:3.0.0.M1")).isTrue();
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class CompiledRulesTest {
+  private static final List<String> RULES = ImmutableList.of(
+      "org.apache.karaf.features:spring:3.0.0.RC1",
+      "org\\.codehaus\\..*",
+      "com.google.guava:guava:.*",
+      "[^:].*?:[^:].*?:[^:].*RC.*",
+      "junit:junit:4\\.\\d+");
+
+  private static final List<String> VALUES = ImmutableList.of(
+      "org.apache.karaf.features:spring:3.0.0.RC1",
+      "orgXapache.karaf.features:spring:3.0.0.RC1",
+      "org.apache.karaf.features:spring:3.0.0.RC2",
+      "org.codehaus.mojo:versions-maven-plugin:1.3.1",
+      "orgXcodehaus.mojo:versions-maven-plugin:1.3.1",
+      "com.google.guava:guava:14.0",
+      "com.google.guava:guava-gwt:14.0",
+      "org.test:test:1.0-RC1",
+      "junit:junit:4.11",
+      "junit:junit:4.x",
+      "");
+
+  @Test
+  public void testLiteralAndPrefixRulesAreNotCompiledToRegex() {
+    CompiledRules rules = new CompiledRules(RULES);
+
+    assertThat(rules.getRegexRules()).containsOnly("[^:].*?:[^:].*?:[^:].*RC.*", "junit:junit:4\\.\\d+");
+  }
+
+  @Test
+  public void testMatchesLikeJoinedRegex() {
+    CompiledRules rules = new CompiledRules(RULES);
+    String regex = "(" + Joiner.on(")|(").join(RULES) + ")";
+
+    for (String value : VALUES) {
+      assertThat(rules.matches(value)).as(value).isEqualTo(value.matches(regex));
+    }
+  }
+
+  @Test
+  public void testAutomatonMatchesLikeJoinedRegex() {
+    List<String> rules = ImmutableList.<String>builder().addAll(RULES).add("^org\\.test:.*").build();
+    CompiledRules compiledRules = new CompiledRules(rules, true);
+    String regex = "(" + Joiner.on(")|(").join(rules) + ")";
+
+    assertThat(compiledRules.getRegexRules()).containsOnly("^org\\.test:.*");
+    assertThat(compiledRules.getAutomatonRules()).containsOnly("[^:].*?:[^:].*?:[^:].*RC.*", "junit:junit:4\\.\\d+");
+    assertThat(compiledRules.getAutomatonCount()).isEqualTo(1);
+    for (String value : VALUES) {
+      assertThat(compiledRules.matches(value)).as(value).isEqualTo(value.matches(regex));
+    }
+  }
+
+  @Test
+  public void testRuleExceedingStateLimitFallsBackAlone() {
+    List<String> rules = ImmutableList.of(".*RC\\d+", "[ab]*a[ab]{20}", "junit:junit:4\\.\\d+", "x+y");
+    CompiledRules compiledRules = new CompiledRules(rules, true);
+
+    assertThat(compiledRules.getRegexRules()).containsOnly("[ab]*a[ab]{20}");
+    assertThat(compiledRules.getAutomatonRules()).containsOnly(".*RC\\d+", "junit:junit:4\\.\\d+", "x+y");
+    assertThat(compiledRules.matches("org.test:test:1-RC1")).isTrue();
+    assertThat(compiledRules.matches("ba" + Strings.repeat("b", 20))).isTrue();
+    assertThat(compiledRules.matches("xxy")).isTrue();
+    assertThat(compiledRules.matches("junit:junit:3.8")).isFalse();
+  }
+
+  @Test
+  public void testAutomatonFallsBackToPatternForSurrogates() {
+    CompiledRules rules = new CompiledRules(ImmutableList.of("a.+b"), true);
+
+    assertThat(rules.matches("a\ud83d\ude00b")).isTrue();
+    assertThat(rules.matches("axb")).isTrue();
+  }
+
+  @Test(expectedExceptions = java.util.regex.PatternSyntaxException.class)
+  public void testAutomatonKeepsSyntaxErrors() {
+    new CompiledRules(ImmutableList.of("[a-"), true);
+  }
+
+  @Test
+  public void testWildcardDoesNotMatchLineTerminator() {
+    CompiledRules rules = new CompiledRules(ImmutableList.of("a.c", "x.*"));
+
+    assertThat(rules.matches("abc")).isTrue();
+    assertThat(rules.matches("a\nc")).isFalse();
+    assertThat(rules.matches("xyz")).isTrue();
+    assertThat(rules.matches("xy\nz")).isFalse();
+  }
+
+  @Test
+  public void testEmptyRulesMatchNothing() {
+    CompiledRules rules = new CompiledRules(ImmutableList.<String>of());
+
+    assertThat(rules.matches("a")).isFalse();
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import com.google.common.collect.Lists;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class DecisionCacheTest {
+
+  @Test
+  public void testSmallCacheEvictsLeastRecentlyUsed() {
+    DecisionCache cache = new DecisionCache(2);
+    CoordinatesSequence coordinates = new CoordinatesSequence();
+
+    cache.put(coordinates.reset("a:a:1"), true);
+    cache.put(coordinates.reset("b:b:1"), false);
+    assertThat(cache.get(coordinates.reset("a:a:1"))).isTrue();
+    cache.put(coordinates.reset("c:c:1"), true);
+
+    assertThat(cache.get(coordinates.reset("b:b:1"))).isNull();
+    assertThat(cache.get(coordinates.reset("a:a:1"))).isTrue();
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(cache.getHitCount()).isEqualTo(2);
+    assertThat(cache.getMissCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testStaysBoundedUnderConcurrentPuts() throws Exception {
+    final DecisionCache cache = new DecisionCache(256);
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Void>> results = Lists.newArrayList();
+      for (int thread = 0; thread < 8; thread++) {
+        final int offset = thread * 10000;
+        results.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() {
+            CoordinatesSequence coordinates = new CoordinatesSequence();
+            for (int i = 0; i < 10000; i++) {
+              coordinates.reset("org.test:test" + (offset + i) + ":1.0");
+              if (cache.get(coordinates) == null) {
+                cache.put(coordinates, true);
+              }
+            }
+            return null;
+          }
+        }));
+      }
+      for (Future<Void> result : results) {
+        result.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertThat(cache.size()).isLessThanOrEqualTo(256);
+    assertThat(cache.getHitCount() + cache.getMissCount()).isEqualTo(8 * 10000);
+  }
+}
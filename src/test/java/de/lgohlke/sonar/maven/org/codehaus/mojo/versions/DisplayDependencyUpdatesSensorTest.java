@@ -26,13 +26,16 @@ import de.lgohlke.sonar.PomSourceImporter;
 import de.lgohlke.sonar.maven.org.codehaus.mojo.versions.rules.DependencyVersion;
 import lombok.Getter;
 import org.apache.maven.artifact.versioning.ArtifactVersion;
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
 import org.apache.maven.model.Dependency;
 import org.apache.maven.model.InputLocation;
+import org.apache.maven.model.InputSource;
 import org.apache.maven.project.MavenProject;
 import org.sonar.api.config.PropertyDefinitions;
 import org.sonar.api.config.Settings;
 import org.sonar.api.profiles.RulesProfile;
 import org.sonar.api.resources.Project;
+import org.sonar.api.resources.ProjectFileSystem;
 import org.sonar.api.rules.ActiveRule;
 import org.sonar.api.rules.ActiveRuleParam;
 import org.sonar.api.rules.Violation;
@@ -41,6 +44,7 @@ import org.sonar.batch.scan.maven.MavenPluginExecutor;
 import org.testng.annotations.Test;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -53,6 +57,18 @@ import static org.mockito.Mockito.when;
  * User: lgohlke
  */
 public class DisplayDependencyUpdatesSensorTest {
+  private static final String POM_SOURCE = "<project>\n" +
+      "  <dependencyManagement><dependencies>\n" +
+      "    <dependency><groupId>d</groupId><artifactId>d</artifactId><version>${d.version}</version></dependency>\n" +
+      "  </dependencies></dependencyManagement>\n" +
+      "  <build><plugins><plugin><groupId>x</groupId><artifactId>x</artifactId><dependencies>\n" +
+      "    <dependency><groupId>d</groupId><artifactId>d</artifactId></dependency>\n" +
+      "  </dependencies></plugin></plugins></build>\n" +
+      "  <dependencies>\n" +
+      "    <dependency><groupId>d</groupId><artifactId>d</artifactId></dependency>\n" +
+      "  </dependencies>\n" +
+      "</project>";
+
   @Test
   public void shouldAnalyse() throws Exception {
     ActiveRuleParam mockedActiveRuleParamWhiteList = getActiveRuleParam(DependencyVersion.RULE_PROPERTY_WHITELIST, ".*");
@@ -86,7 +102,71 @@ public class DisplayDependencyUpdatesSensorTest {
     assertThat(context.getViolations().get(0).getMessage()).contains(artifactQualifier);
   }
 
+  @Test
+  public void shouldPreferLineTrackedByModel() throws Exception {
+    File pom = new File("pom.xml");
+    Dependency dependency = DependencyUtils.createDependency("d", "d", "1");
+    InputSource source = new InputSource();
+    source.setLocation(pom.getAbsolutePath());
+    dependency.setLocation("version", new InputLocation(42, 5, source));
+
+    List<Violation> violations = analyse(DisplayDependencyUpdatesBridgeMojo.DEPENDENCIES, dependency, POM_SOURCE);
+
+    assertThat(violations.get(0).getLineId()).isEqualTo(42);
+  }
+
+  @Test
+  public void shouldFindManagedDependencyInItsSection() throws Exception {
+    Dependency dependency = DependencyUtils.createDependency("d", "d", "1");
+
+    assertThat(analyse(DisplayDependencyUpdatesBridgeMojo.DEPENDENCY_MANAGEMENT, dependency, POM_SOURCE).get(0).getLineId()).isEqualTo(3);
+    assertThat(analyse(DisplayDependencyUpdatesBridgeMojo.DEPENDENCIES, dependency, POM_SOURCE).get(0).getLineId()).isEqualTo(9);
+  }
+
+  @Test
+  public void shouldShareIndexOfPomWithPluginSensor() throws Exception {
+    PomIndexCache pomIndexCache = new PomIndexCache();
+    Dependency dependency = DependencyUtils.createDependency("d", "d", "1");
+    analyse(DisplayDependencyUpdatesBridgeMojo.DEPENDENCIES, dependency, POM_SOURCE, pomIndexCache);
+
+    PomSourceImporter pomSourceImporter = mock(PomSourceImporter.class);
+    when(pomSourceImporter.getPomFile()).thenReturn(new org.sonar.api.resources.File("", "pom.xml"));
+    when(pomSourceImporter.getSourceOfPom()).thenReturn(POM_SOURCE);
+    MavenProject mavenProject = mock(MavenProject.class);
+    when(mavenProject.getFile()).thenReturn(new File("pom.xml"));
+    DisplayPluginUpdatesSensor pluginSensor = new DisplayPluginUpdatesSensor(mock(RulesProfile.class), mock(MavenPluginExecutor.class), mavenProject, Settings.createForComponent(DisplayPluginUpdatesSensor.class), pomSourceImporter, pomIndexCache, new ArtifactFilterRegistry(), new UnifiedVersionsExecution(mock(MavenPluginExecutor.class), mock(ProjectFileSystem.class), new Settings()));
+    DisplayPluginUpdatesSensor.ResultTransferHandler handler = pluginSensor.getMojoMapper().getResultTransferHandler();
+    handler.setMissingVersionPlugins(new ArrayList<Dependency>());
+    handler.setPluginUpdates(new ArrayList<ArtifactUpdate>());
+    pluginSensor.analyse(mock(Project.class), new TestSensorContext());
+
+    assertThat(pomIndexCache.size()).isEqualTo(1);
+  }
+
+  private List<Violation> analyse(String section, Dependency dependency, String pomSource) {
+    return analyse(section, dependency, pomSource, new PomIndexCache());
+  }
+
+  private List<Violation> analyse(String section, Dependency dependency, String pomSource, PomIndexCache pomIndexCache) {
+    ActiveRuleParam whitelist = getActiveRuleParam(DependencyVersion.RULE_PROPERTY_WHITELIST, ".*");
+    ActiveRuleParam blacklist = getActiveRuleParam(DependencyVersion.RULE_PROPERTY_BLACKLIST, "");
+    DisplayDependencyUpdatesSensor sensor = getDisplayDependencyUpdatesSensor(ImmutableList.of(whitelist, blacklist), pomSource, pomIndexCache);
+
+    Map<String, List<ArtifactUpdate>> updateMap = Maps.newHashMap();
+    updateMap.put(section, Lists.newArrayList(new ArtifactUpdate(dependency, new DefaultArtifactVersion("2"))));
+    sensor.getMojoMapper().getResultTransferHandler().setUpdateMap(updateMap);
+
+    TestSensorContext context = new TestSensorContext();
+    sensor.analyse(mock(Project.class), context);
+    assertThat(context.getViolations()).hasSize(1);
+    return context.getViolations();
+  }
+
   private DisplayDependencyUpdatesSensor getDisplayDependencyUpdatesSensor(List<ActiveRuleParam> mockActiveRuleParams) {
+    return getDisplayDependencyUpdatesSensor(mockActiveRuleParams, null, new PomIndexCache());
+  }
+
+  private DisplayDependencyUpdatesSensor getDisplayDependencyUpdatesSensor(List<ActiveRuleParam> mockActiveRuleParams, String pomSource, PomIndexCache pomIndexCache) {
     ActiveRule mockedActiveRule = mock(ActiveRule.class);
     when(mockedActiveRule.getActiveRuleParams()).thenReturn(mockActiveRuleParams);
 
@@ -94,7 +174,7 @@ public class DisplayDependencyUpdatesSensorTest {
     when(rulesProfile.getActiveRuleByConfigKey(any(String.class), any(String.class))).thenReturn(mockedActiveRule);
 
     MavenProject mavenProject = mock(MavenProject.class);
-    when(mavenProject.getFile()).thenReturn(new File("."));
+    when(mavenProject.getFile()).thenReturn(new File("pom.xml"));
 
     PropertyDefinitions definitions = new PropertyDefinitions();
     definitions.addComponent(DisplayDependencyUpdatesSensor.class);
@@ -103,8 +183,9 @@ public class DisplayDependencyUpdatesSensorTest {
 
     PomSourceImporter pomSourceImporter = mock(PomSourceImporter.class);
     when(pomSourceImporter.getPomFile()).thenReturn(new org.sonar.api.resources.File("", "pom.xml"));
+    when(pomSourceImporter.getSourceOfPom()).thenReturn(pomSource);
 
-    return new DisplayDependencyUpdatesSensor(rulesProfile, mock(MavenPluginExecutor.class), mavenProject, settings, pomSourceImporter);
+    return new DisplayDependencyUpdatesSensor(rulesProfile, mock(MavenPluginExecutor.class), mavenProject, settings, pomSourceImporter, pomIndexCache, new ArtifactFilterRegistry(), new UnifiedVersionsExecution(mock(MavenPluginExecutor.class), mock(ProjectFileSystem.class), new Settings()));
   }
 
   private ActiveRuleParam getActiveRuleParam(String rulePropertyBlacklist, String value) {
@@ -34,6 +34,7 @@ import org.fest.assertions.core.Condition;
 import org.sonar.api.config.Settings;
 import org.sonar.api.profiles.RulesProfile;
 import org.sonar.api.resources.Project;
+import org.sonar.api.resources.ProjectFileSystem;
 import org.sonar.api.rules.Violation;
 import org.sonar.batch.DefaultSensorContext;
 import org.sonar.batch.scan.maven.MavenPluginExecutor;
@@ -67,7 +68,7 @@ public class DisplayPluginUpdatesSensorTest {
     when(pomSourceImporter.getPomFile()).thenReturn(new org.sonar.api.resources.File("", "pom.xml"));
     when(pomSourceImporter.getSourceOfPom()).thenReturn("");
 
-    sensor = new DisplayPluginUpdatesSensor(mock(RulesProfile.class), mock(MavenPluginExecutor.class), mavenProject, settings, pomSourceImporter);
+    sensor = new DisplayPluginUpdatesSensor(mock(RulesProfile.class), mock(MavenPluginExecutor.class), mavenProject, settings, pomSourceImporter, new PomIndexCache(), new ArtifactFilterRegistry(), new UnifiedVersionsExecution(mock(MavenPluginExecutor.class), mock(ProjectFileSystem.class), new Settings()));
 
     resultTransferHandler = sensor.getMojoMapper().getResultTransferHandler();
     resultTransferHandler.setMissingVersionPlugins(new ArrayList<Dependency>());
@@ -0,0 +1,114 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import com.google.common.base.Functions;
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+import de.lgohlke.sonar.maven.Maven3SonarEmbedder;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.metadata.ArtifactMetadataSource;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.versioning.ArtifactVersion;
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+import org.apache.maven.artifact.versioning.VersionRange;
+import org.apache.maven.execution.MavenSession;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Properties;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.fest.reflect.core.Reflection.field;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LocalMirrorMetadataSourceTest {
+  private File mirror;
+  private ArtifactMetadataSource delegate;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    mirror = Files.createTempDir();
+    touch("org/example/mirrored/1.9/mirrored-1.9.pom");
+    touch("org/example/mirrored/1.10/mirrored-1.10.pom");
+    new File(mirror, "org/example/mirrored/2.0").mkdirs();
+
+    delegate = mock(ArtifactMetadataSource.class);
+    when(delegate.retrieveAvailableVersions(any(Artifact.class), any(ArtifactRepository.class), anyListOf(ArtifactRepository.class)))
+        .thenReturn(Lists.<ArtifactVersion>newArrayList(new DefaultArtifactVersion("1.0"), new DefaultArtifactVersion("1.9")));
+  }
+
+  @AfterMethod
+  public void tearDown() throws IOException {
+    VersionMetadataCache.getDefault().invalidateAll();
+    Files.deleteRecursively(mirror.getCanonicalFile());
+  }
+
+  @Test
+  public void shouldAddVersionsOfMirror() throws Exception {
+    ArtifactMetadataSource source = LocalMirrorMetadataSource.decorate(delegate, mirror.getAbsolutePath());
+
+    List<ArtifactVersion> versions = source.retrieveAvailableVersions(artifact(), null, null);
+
+    assertThat(Lists.transform(versions, Functions.toStringFunction())).containsOnly("1.0", "1.9", "1.10");
+  }
+
+  @Test
+  public void shouldNotDecorateWithoutMirror() {
+    assertThat(LocalMirrorMetadataSource.decorate(delegate, null)).isSameAs(delegate);
+    ArtifactMetadataSource source = LocalMirrorMetadataSource.decorate(delegate, mirror.getAbsolutePath());
+    assertThat(LocalMirrorMetadataSource.decorate(source, mirror.getAbsolutePath())).isSameAs(source);
+  }
+
+  @Test
+  public void shouldResolveMirrorVersionsThroughHelperOfBridgeMojo() throws Exception {
+    Properties userProperties = new Properties();
+    userProperties.setProperty(Maven3SonarEmbedder.LOCAL_MIRROR_PROPERTY, mirror.getAbsolutePath());
+    MavenSession session = mock(MavenSession.class);
+    when(session.getUserProperties()).thenReturn(userProperties);
+    when(session.getSystemProperties()).thenReturn(new Properties());
+    UnifiedVersionsBridgeMojo mojo = new UnifiedVersionsBridgeMojo();
+    field("session").ofType(MavenSession.class).in(mojo).set(session);
+    field("artifactMetadataSource").ofType(ArtifactMetadataSource.class).in(mojo).set(delegate);
+
+    ArtifactVersion[] versions = mojo.getHelper().lookupArtifactVersions(artifact(), false).getVersions(false);
+
+    assertThat(Lists.transform(Lists.newArrayList(versions), Functions.toStringFunction())).containsExactly("1.0", "1.9", "1.10");
+  }
+
+  private static Artifact artifact() {
+    return new DefaultArtifact("org.example", "mirrored", VersionRange.createFromVersion("1.0"), "compile", "pom", null, new DefaultArtifactHandler("pom"));
+  }
+
+  private void touch(String path) throws IOException {
+    File file = new File(mirror, path);
+    Files.createParentDirs(file);
+    Files.touch(file);
+  }
+}
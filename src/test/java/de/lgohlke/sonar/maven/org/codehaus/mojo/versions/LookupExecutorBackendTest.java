@@ -0,0 +1,127 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import com.google.common.collect.Lists;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class LookupExecutorBackendTest {
+
+  @Test
+  public void shouldParseSetting() {
+    assertThat(LookupExecutorBackend.fromSetting(" FIXED_THREAD_POOL ")).isEqualTo(LookupExecutorBackend.FIXED_THREAD_POOL);
+    assertThat(LookupExecutorBackend.fromSetting(null)).isEqualTo(LookupExecutorBackend.DEFAULT);
+    assertThat(LookupExecutorBackend.fromSetting("unknown")).isEqualTo(LookupExecutorBackend.DEFAULT);
+  }
+
+  @Test
+  public void shouldFallBackToDefaultIfRuntimeLacksVirtualThreads() {
+    LookupExecutorBackend expected = LookupExecutorBackend.VIRTUAL_THREAD_PER_TASK.isAvailable()
+        ? LookupExecutorBackend.VIRTUAL_THREAD_PER_TASK
+        : LookupExecutorBackend.DEFAULT;
+
+    assertThat(LookupExecutorBackend.fromSetting("VIRTUAL_THREAD_PER_TASK")).isEqualTo(expected);
+  }
+
+  @Test
+  public void shouldDetectVirtualThreadsByRuntime() {
+    boolean supported = true;
+    try {
+      Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+    } catch (NoSuchMethodException e) {
+      supported = false;
+    }
+
+    assertThat(LookupExecutorBackend.VIRTUAL_THREAD_PER_TASK.isAvailable()).isEqualTo(supported);
+    assertThat(LookupExecutorBackend.FIXED_THREAD_POOL.isAvailable()).isTrue();
+  }
+
+  @Test
+  public void shouldRunTasksOnEveryBackend() throws Exception {
+    for (LookupExecutorBackend backend : LookupExecutorBackend.values()) {
+      if (!backend.isAvailable()) {
+        continue;
+      }
+      ExecutorService executor = backend.create(2);
+      try {
+        assertThat(executor.submit(new Callable<String>() {
+          @Override
+          public String call() {
+            return "done";
+          }
+        }).get(10, TimeUnit.SECONDS)).isEqualTo("done");
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void shouldRejectNonPositiveThreads() {
+    LookupExecutorBackend.FIXED_THREAD_POOL.create(0);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void shouldRejectNonPositiveThreadsForVirtualThreads() {
+    LookupExecutorBackend.VIRTUAL_THREAD_PER_TASK.create(0);
+  }
+
+  @Test
+  public void shouldBoundConcurrentTasksOfUnboundedDelegate() throws Exception {
+    ExecutorService executor = new LookupExecutorBackend.BoundedExecutorService(Executors.newCachedThreadPool(), 2);
+    final AtomicInteger running = new AtomicInteger();
+    final AtomicInteger maximum = new AtomicInteger();
+    try {
+      List<Future<?>> futures = Lists.newArrayList();
+      for (int i = 0; i < 20; i++) {
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            int current = running.incrementAndGet();
+            synchronized (maximum) {
+              maximum.set(Math.max(maximum.get(), current));
+            }
+            Thread.sleep(10);
+            running.decrementAndGet();
+            return null;
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(10, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(maximum.get()).isEqualTo(2);
+    assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+  }
+}
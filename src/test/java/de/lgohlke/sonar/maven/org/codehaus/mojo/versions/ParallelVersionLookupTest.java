@@ -0,0 +1,244 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.io.Files;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.factory.ArtifactFactory;
+import org.apache.maven.artifact.metadata.ArtifactMetadataRetrievalException;
+import org.apache.maven.artifact.metadata.ArtifactMetadataSource;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.repository.ArtifactRepositoryFactory;
+import org.apache.maven.artifact.repository.layout.ArtifactRepositoryLayout;
+import org.apache.maven.artifact.resolver.ArtifactResolver;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.codehaus.mojo.versions.api.ArtifactVersions;
+import org.codehaus.mojo.versions.api.DefaultVersionsHelper;
+import org.codehaus.mojo.versions.api.VersionsHelper;
+import org.codehaus.mojo.versions.utils.DependencyComparator;
+import org.codehaus.plexus.DefaultPlexusContainer;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.fest.assertions.api.Assertions.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ParallelVersionLookupTest {
+  private final LookupConfiguration configuration = new LookupConfiguration(4, LookupExecutorBackend.FIXED_THREAD_POOL);
+  private VersionsHelper helper;
+
+  @BeforeMethod
+  public void setUp() {
+    helper = mock(VersionsHelper.class);
+  }
+
+  @Test
+  public void shouldKeepOrderOfDependencies() throws Exception {
+    Set<Dependency> dependencies = dependencies("c", "a", "b");
+    final CountDownLatch lastStarted = new CountDownLatch(1);
+    when(helper.lookupDependencyUpdates(any(Dependency.class), anyBoolean())).thenAnswer(new Answer<ArtifactVersions>() {
+      @Override
+      public ArtifactVersions answer(final InvocationOnMock invocation) throws Throwable {
+        Dependency dependency = (Dependency) invocation.getArguments()[0];
+        // the first dependency finishes after the last one has been started
+        if ("a".equals(dependency.getArtifactId())) {
+          assertThat(lastStarted.await(10, TimeUnit.SECONDS)).isTrue();
+        } else if ("c".equals(dependency.getArtifactId())) {
+          lastStarted.countDown();
+        }
+        return mock(ArtifactVersions.class);
+      }
+    });
+
+    Map<Dependency, ArtifactVersions> updates = new ParallelVersionLookup(helper, configuration).lookupDependenciesUpdates(dependencies, false);
+
+    assertThat(Lists.newArrayList(updates.keySet())).isEqualTo(Lists.newArrayList(dependencies));
+    assertThat(updates.values()).doesNotContainNull();
+  }
+
+  @Test(expectedExceptions = ArtifactMetadataRetrievalException.class)
+  public void shouldRethrowLookupFailures() throws Exception {
+    when(helper.lookupDependencyUpdates(any(Dependency.class), anyBoolean())).thenThrow(new ArtifactMetadataRetrievalException("unreachable", null, null));
+
+    new ParallelVersionLookup(helper, configuration).lookupDependenciesUpdates(dependencies("a", "b"), false);
+  }
+
+  @Test
+  public void shouldLookupNothingForNoDependencies() throws Exception {
+    assertThat(new ParallelVersionLookup(helper, configuration).lookupDependenciesUpdates(dependencies(), false)).isEmpty();
+  }
+
+  @Test
+  public void shouldLookupOnExecutorWithSingleThread() throws Exception {
+    final List<String> threads = Collections.synchronizedList(Lists.<String>newArrayList());
+    when(helper.lookupDependencyUpdates(any(Dependency.class), anyBoolean())).thenAnswer(new Answer<ArtifactVersions>() {
+      @Override
+      public ArtifactVersions answer(final InvocationOnMock invocation) throws Throwable {
+        threads.add(Thread.currentThread().getName());
+        return mock(ArtifactVersions.class);
+      }
+    });
+
+    new ParallelVersionLookup(helper, LookupConfiguration.SEQUENTIAL).lookupDependenciesUpdates(dependencies("a", "b"), false);
+
+    assertThat(threads).hasSize(2);
+    assertThat(Sets.newHashSet(threads)).containsOnly("metadata-lookup-0");
+  }
+
+  @Test
+  public void shouldLookupArtifactVersionsByKey() throws Exception {
+    Artifact first = artifact("a");
+    Artifact second = artifact("b");
+    ArtifactVersions firstVersions = mock(ArtifactVersions.class);
+    ArtifactVersions secondVersions = mock(ArtifactVersions.class);
+    when(helper.lookupArtifactVersions(first, true)).thenReturn(firstVersions);
+    when(helper.lookupArtifactVersions(second, true)).thenReturn(secondVersions);
+    Map<String, Artifact> artifacts = Maps.newLinkedHashMap();
+    artifacts.put("second", second);
+    artifacts.put("first", first);
+
+    Map<String, ArtifactVersions> versions = new ParallelVersionLookup(helper, configuration).lookupArtifactVersions(artifacts, true);
+
+    assertThat(Lists.newArrayList(versions.keySet())).containsExactly("second", "first");
+    assertThat(versions.get("first")).isSameAs(firstVersions);
+    assertThat(versions.get("second")).isSameAs(secondVersions);
+  }
+
+  @Test
+  public void shouldRunSingleLookupOnExecutor() throws Exception {
+    String thread = new ParallelVersionLookup(helper, configuration).lookup(new Callable<String>() {
+      @Override
+      public String call() {
+        return Thread.currentThread().getName();
+      }
+    });
+
+    assertThat(thread).startsWith("metadata-lookup-");
+  }
+
+  @Test
+  public void shouldRethrowMojoExecutionExceptionOfLookup() throws Exception {
+    final MojoExecutionException failure = new MojoExecutionException("no latest version");
+    try {
+      new ParallelVersionLookup(helper, configuration).lookup(new Callable<String>() {
+        @Override
+        public String call() throws Exception {
+          throw failure;
+        }
+      });
+      fail("the failure of the lookup should be rethrown");
+    } catch (MojoExecutionException e) {
+      assertThat(e).isSameAs(failure);
+    }
+  }
+
+  /**
+   * the helper and the maven-compat components behind it are shared by all lookups, so they are run concurrently against
+   * a file repository; two versions of each artifact make two lookups resolve the same metadata at the same time
+   */
+  @Test
+  public void shouldLookupLikeRealHelperWhenRunConcurrently() throws Exception {
+    File repository = Files.createTempDir();
+    DefaultPlexusContainer container = new DefaultPlexusContainer();
+    try {
+      File remote = new File(repository, "remote");
+      Set<Dependency> dependencies = new TreeSet<Dependency>(new DependencyComparator());
+      for (int i = 0; i < 20; i++) {
+        File metadata = new File(remote, "org/example/lib" + i + "/maven-metadata.xml");
+        Files.createParentDirs(metadata);
+        Files.write("<metadata><groupId>org.example</groupId><artifactId>lib" + i + "</artifactId><versioning><versions>" +
+            "<version>1.0</version><version>1.1</version><version>2.0-SNAPSHOT</version><version>2." + i + "</version>" +
+            "</versions></versioning></metadata>", metadata, Charsets.UTF_8);
+        dependencies.add(DependencyUtils.createDependency("org.example", "lib" + i, "1.0"));
+        dependencies.add(DependencyUtils.createDependency("org.example", "lib" + i, "1.1"));
+      }
+
+      ArtifactRepositoryFactory repositoryFactory = container.lookup(ArtifactRepositoryFactory.class);
+      ArtifactRepositoryLayout layout = container.lookup(ArtifactRepositoryLayout.class, "default");
+      File local = new File(repository, "local");
+      ArtifactRepository localRepository = repositoryFactory.createArtifactRepository("local", local.toURI().toString(), layout, null, null);
+      List<ArtifactRepository> remoteRepositories = Collections.singletonList(
+          repositoryFactory.createArtifactRepository("remote", remote.toURI().toString(), layout, null, null));
+      VersionsHelper realHelper = new DefaultVersionsHelper(container.lookup(ArtifactFactory.class), container.lookup(ArtifactResolver.class),
+          container.lookup(ArtifactMetadataSource.class), remoteRepositories, remoteRepositories, localRepository,
+          null, null, null, null, new SystemStreamLog(), null, null);
+
+      Map<String, String> expected = versionsOf(realHelper.lookupDependenciesUpdates(dependencies, false));
+      assertThat(expected).hasSize(dependencies.size());
+      for (int run = 0; run < 5; run++) {
+        // the local repository caches the metadata, without it every run resolves it again
+        Files.deleteRecursively(local.getCanonicalFile());
+        Map<Dependency, ArtifactVersions> updates = new ParallelVersionLookup(realHelper, configuration).lookupDependenciesUpdates(dependencies, false);
+
+        assertThat(versionsOf(updates)).isEqualTo(expected);
+      }
+    } finally {
+      container.dispose();
+      Files.deleteRecursively(repository.getCanonicalFile());
+    }
+  }
+
+  private static Map<String, String> versionsOf(Map<Dependency, ArtifactVersions> updates) {
+    Map<String, String> versions = Maps.newLinkedHashMap();
+    for (Map.Entry<Dependency, ArtifactVersions> entry : updates.entrySet()) {
+      Dependency dependency = entry.getKey();
+      versions.put(dependency.getArtifactId() + ":" + dependency.getVersion(), Arrays.toString(entry.getValue().getVersions(true)));
+    }
+    return versions;
+  }
+
+  private static Artifact artifact(String artifactId) {
+    Artifact artifact = mock(Artifact.class);
+    when(artifact.getGroupId()).thenReturn("org.example");
+    when(artifact.getArtifactId()).thenReturn(artifactId);
+    return artifact;
+  }
+
+  private static Set<Dependency> dependencies(String... artifactIds) {
+    Set<Dependency> dependencies = new TreeSet<Dependency>(new DependencyComparator());
+    for (String artifactId : artifactIds) {
+      dependencies.add(DependencyUtils.createDependency("org.example", artifactId, "1.0"));
+    }
+    return dependencies;
+  }
+}
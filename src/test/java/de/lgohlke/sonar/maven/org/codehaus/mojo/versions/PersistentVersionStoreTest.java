@@ -0,0 +1,180 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.factory.ArtifactFactory;
+import org.apache.maven.artifact.metadata.ArtifactMetadataSource;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.repository.ArtifactRepositoryFactory;
+import org.apache.maven.artifact.repository.layout.ArtifactRepositoryLayout;
+import org.apache.maven.artifact.versioning.ArtifactVersion;
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+import org.codehaus.plexus.DefaultPlexusContainer;
+import org.sonar.api.config.Settings;
+import org.sonar.api.resources.ProjectFileSystem;
+import org.sonar.batch.scan.maven.MavenPluginExecutor;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PersistentVersionStoreTest {
+  private static final long TTL = TimeUnit.HOURS.toMillis(1);
+  private final List<ArtifactVersion> versions = Lists.<ArtifactVersion>newArrayList(new DefaultArtifactVersion("1.0"), new DefaultArtifactVersion("1.1-SNAPSHOT"));
+  private File workingDirectory;
+  private File repository;
+
+  @BeforeMethod
+  public void setUp() {
+    workingDirectory = Files.createTempDir();
+    repository = Files.createTempDir();
+  }
+
+  @AfterMethod
+  public void tearDown() throws Exception {
+    Files.deleteRecursively(workingDirectory.getCanonicalFile());
+    Files.deleteRecursively(repository.getCanonicalFile());
+  }
+
+  @Test
+  public void shouldReadWhatWasWritten() {
+    PersistentVersionStore store = new PersistentVersionStore(workingDirectory, TTL);
+    store.write("org.example:lib", versions);
+
+    assertThat(new PersistentVersionStore(workingDirectory, TTL).read("org.example:lib")).isEqualTo(versions);
+    assertThat(store.read("org.example:other")).isNull();
+  }
+
+  @Test
+  public void shouldExpire() {
+    PersistentVersionStore store = new PersistentVersionStore(workingDirectory, TTL);
+    store.write("org.example:lib", versions);
+    for (File file : workingDirectory.listFiles()) {
+      file.setLastModified(System.currentTimeMillis() - 2 * TTL);
+    }
+
+    assertThat(store.read("org.example:lib")).isNull();
+  }
+
+  @Test
+  public void shouldStoreEmptyVersionLists() {
+    PersistentVersionStore store = new PersistentVersionStore(workingDirectory, TTL);
+    store.write("org.example:lib", Collections.<ArtifactVersion>emptyList());
+
+    assertThat(store.read("org.example:lib")).isEmpty();
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void shouldRejectNonPositiveTimeToLive() {
+    new PersistentVersionStore(workingDirectory, 0);
+  }
+
+  @Test
+  public void shouldNotShareTemporaryFilesBetweenConcurrentWriters() throws Exception {
+    final PersistentVersionStore store = new PersistentVersionStore(workingDirectory, TTL);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = Lists.newArrayList();
+      for (int i = 0; i < 200; i++) {
+        futures.add(executor.submit(new Runnable() {
+          @Override
+          public void run() {
+            store.write("org.example:lib", versions);
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(workingDirectory.list()).hasSize(1);
+    assertThat(store.read("org.example:lib")).isEqualTo(versions);
+  }
+
+  @Test
+  public void shouldServeLaterAnalysesFromDisk() throws Exception {
+    File remote = new File(repository, "remote");
+    File local = new File(repository, "local");
+    File metadata = new File(remote, "org/example/lib/maven-metadata.xml");
+    Files.createParentDirs(metadata);
+    Files.write("<metadata><groupId>org.example</groupId><artifactId>lib</artifactId><versioning><versions>" +
+        "<version>1.0</version><version>1.1-SNAPSHOT</version></versions></versioning></metadata>", metadata, Charsets.UTF_8);
+
+    DefaultPlexusContainer container = new DefaultPlexusContainer();
+    try {
+      ArtifactMetadataSource metadataSource = container.lookup(ArtifactMetadataSource.class);
+      ArtifactRepositoryFactory repositoryFactory = container.lookup(ArtifactRepositoryFactory.class);
+      ArtifactRepositoryLayout layout = container.lookup(ArtifactRepositoryLayout.class, "default");
+      ArtifactRepository localRepository = repositoryFactory.createArtifactRepository("local", local.toURI().toString(), layout, null, null);
+      List<ArtifactRepository> remoteRepositories = Collections.singletonList(
+          repositoryFactory.createArtifactRepository("remote", remote.toURI().toString(), layout, null, null));
+      Artifact artifact = container.lookup(ArtifactFactory.class).createArtifact("org.example", "lib", "1.0", null, "jar");
+
+      VersionMetadataCache firstAnalysis = new VersionMetadataCache();
+      firstAnalysis.usePersistentStore(new PersistentVersionStore(workingDirectory, TTL));
+      assertThat(firstAnalysis.decorate(metadataSource).retrieveAvailableVersions(artifact, localRepository, remoteRepositories)).isEqualTo(versions);
+
+      // neither the remote nor the local repository knows the artifact any more
+      Files.deleteRecursively(remote.getCanonicalFile());
+      Files.deleteRecursively(local.getCanonicalFile());
+      assertThat(metadataSource.retrieveAvailableVersions(artifact, localRepository, remoteRepositories)).isEmpty();
+
+      VersionMetadataCache secondAnalysis = new VersionMetadataCache();
+      secondAnalysis.usePersistentStore(new PersistentVersionStore(workingDirectory, TTL));
+      List<ArtifactVersion> resolved = secondAnalysis.decorate(metadataSource).retrieveAvailableVersions(artifact, localRepository, remoteRepositories);
+
+      assertThat(resolved).isEqualTo(versions);
+      assertThat(secondAnalysis.getHitCount()).isEqualTo(1);
+    } finally {
+      container.dispose();
+    }
+  }
+
+  @Test
+  public void shouldCreateStoreInSonarWorkingDirectory() {
+    ProjectFileSystem fileSystem = mock(ProjectFileSystem.class);
+    when(fileSystem.getSonarWorkingDirectory()).thenReturn(workingDirectory);
+    Settings settings = new Settings();
+
+    UnifiedVersionsExecution execution = new UnifiedVersionsExecution(mock(MavenPluginExecutor.class), fileSystem, settings);
+    assertThat(execution.createPersistentStore()).isNull();
+
+    settings.setProperty("sonar.maven.versionCache.ttl", 24);
+    assertThat(execution.createPersistentStore().getDirectory()).isEqualTo(new File(workingDirectory, PersistentVersionStore.DIRECTORY));
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import de.lgohlke.sonar.PomSourceImporter;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PomIndexCacheTest {
+  private static final String SOURCE = "<project><build><plugins>\n" +
+      "<plugin><groupId>a</groupId><artifactId>a</artifactId><version>1</version></plugin>\n" +
+      "</plugins></build></project>";
+
+  @Test
+  public void testSameSourceIsIndexedOnce() throws Exception {
+    PomIndexCache cache = new PomIndexCache();
+
+    PomIndex index = cache.getIndex(SOURCE);
+
+    assertThat(cache.getIndex(new String(SOURCE))).isSameAs(index);
+    assertThat(cache.size()).isEqualTo(1);
+    assertThat(index.getLine(DependencyUtils.createDependency("a", "a", "1"), PomUtils.TYPE.plugin)).isEqualTo(2);
+  }
+
+  @Test
+  public void testDifferentSourcesAreIndexedSeparately() throws Exception {
+    PomIndexCache cache = new PomIndexCache();
+
+    PomIndex index = cache.getIndex(SOURCE);
+
+    assertThat(cache.getIndex(SOURCE + "\n")).isNotSameAs(index);
+    assertThat(cache.size()).isEqualTo(2);
+  }
+
+  @Test
+  public void testPomIsStreamedAndIndexedOnce() throws Exception {
+    PomSourceImporter pomSourceImporter = mockPomSourceImporter(writePom(SOURCE));
+    PomIndexCache cache = new PomIndexCache();
+
+    PomIndex index = cache.getIndex(pomSourceImporter);
+
+    assertThat(cache.getIndex(pomSourceImporter)).isSameAs(index);
+    assertThat(cache.size()).isEqualTo(1);
+    assertThat(index.getLine(DependencyUtils.createDependency("a", "a", "1"), PomUtils.TYPE.plugin)).isEqualTo(2);
+    verify(pomSourceImporter, times(1)).openPomStream();
+    verify(pomSourceImporter, never()).getSourceOfPom();
+  }
+
+  @Test
+  public void testChangedPomIsIndexedAgain() throws Exception {
+    File pom = writePom(SOURCE);
+    PomSourceImporter pomSourceImporter = mockPomSourceImporter(pom);
+    PomIndexCache cache = new PomIndexCache();
+
+    PomIndex index = cache.getIndex(pomSourceImporter);
+    Files.append("\n", pom, Charsets.UTF_8);
+
+    assertThat(cache.getIndex(pomSourceImporter)).isNotSameAs(index);
+    assertThat(cache.size()).isEqualTo(2);
+    verify(pomSourceImporter, times(2)).openPomStream();
+  }
+
+  @Test
+  public void testFallbackToSourceWithoutPomOnDisk() throws Exception {
+    PomSourceImporter pomSourceImporter = mock(PomSourceImporter.class);
+    when(pomSourceImporter.getSourceOfPom()).thenReturn(SOURCE);
+    PomIndexCache cache = new PomIndexCache();
+
+    PomIndex index = cache.getIndex(pomSourceImporter);
+
+    assertThat(index.getLine(DependencyUtils.createDependency("a", "a", "1"), PomUtils.TYPE.plugin)).isEqualTo(2);
+  }
+
+  @Test
+  public void testMissingSourceIsNotCached() throws Exception {
+    PomIndexCache cache = new PomIndexCache();
+
+    PomIndex index = cache.getIndex((String) null);
+
+    assertThat(index.getLine(DependencyUtils.createDependency("a", "a", "1"), PomUtils.TYPE.plugin)).isZero();
+    assertThat(cache.size()).isZero();
+  }
+
+  private static File writePom(String source) throws IOException {
+    File pom = File.createTempFile("pom", ".xml");
+    pom.deleteOnExit();
+    Files.write(source, pom, Charsets.UTF_8);
+    return pom;
+  }
+
+  private static PomSourceImporter mockPomSourceImporter(final File pom) throws IOException {
+    PomSourceImporter pomSourceImporter = mock(PomSourceImporter.class);
+    when(pomSourceImporter.getPomOnDisk()).thenReturn(pom);
+    when(pomSourceImporter.openPomStream()).thenAnswer(new Answer<InputStream>() {
+      @Override
+      public InputStream answer(InvocationOnMock invocation) throws Throwable {
+        return new FileInputStream(pom);
+      }
+    });
+    return pomSourceImporter;
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import org.testng.annotations.Test;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class PomIndexTest {
+  private static final String SOURCE = "<project>\n" +
+      "<build>\n" +
+      "  <plugins>\n" +
+      "    <plugin>\n" +
+      "       <groupId>a</groupId>\n" +
+      "       <artifactId>a</artifactId>\n" +
+      "       <version>1</version>\n" +
+      "       <dependencies>\n" +
+      "         <dependency>\n" +
+      "           <groupId>c</groupId>\n" +
+      "           <artifactId>c</artifactId>\n" +
+      "           <version>3</version>\n" +
+      "         </dependency>\n" +
+      "       </dependencies>\n" +
+      "    </plugin>\n" +
+      "    <plugin>\n" +
+      "       <groupId>b</groupId>\n" +
+      "       <artifactId>b</artifactId>\n" +
+      "    </plugin>\n" +
+      "  </plugins>\n" +
+      "</build>\n" +
+      "</project>";
+
+  @Test
+  public void testLookupOfMultiplePlugins() throws Exception {
+    PomIndex index = PomIndex.create(SOURCE);
+
+    assertThat(index.getLine(DependencyUtils.createDependency("a", "a", "1"), PomUtils.TYPE.plugin)).isEqualTo(7);
+    assertThat(index.getLine(DependencyUtils.createDependency("a", "a", ""), PomUtils.TYPE.plugin)).isEqualTo(6);
+    assertThat(index.getLine(DependencyUtils.createDependency("b", "b", null), PomUtils.TYPE.plugin)).isEqualTo(18);
+  }
+
+  @Test
+  public void testNestedDependenciesAreNotIndexedAsPlugins() throws Exception {
+    PomIndex index = PomIndex.create(SOURCE);
+
+    assertThat(index.getLine(DependencyUtils.createDependency("c", "c", "3"), PomUtils.TYPE.plugin)).isZero();
+    assertThat(index.getLine(DependencyUtils.createDependency("c", "c", "3"), PomUtils.TYPE.dependency)).isZero();
+    assertThat(index.getLine(DependencyUtils.createDependency("c", "c", "3"), PomUtils.TYPE.pluginDependency)).isEqualTo(12);
+    assertThat(index.getLine(DependencyUtils.createDependency("a", "a", "3"), PomUtils.TYPE.plugin)).isZero();
+  }
+
+  @Test
+  public void testDependenciesWithoutVersionAreFoundInTheirOwnSection() throws Exception {
+    String source = "<project>\n" +
+        "  <dependencyManagement><dependencies>\n" +
+        "    <dependency><groupId>d</groupId><artifactId>d</artifactId><version>1</version></dependency>\n" +
+        "  </dependencies></dependencyManagement>\n" +
+        "  <build><plugins><plugin><groupId>x</groupId><artifactId>x</artifactId><dependencies>\n" +
+        "    <dependency><groupId>d</groupId><artifactId>d</artifactId><version>2</version></dependency>\n" +
+        "  </dependencies></plugin></plugins></build>\n" +
+        "  <dependencies>\n" +
+        "    <dependency><groupId>d</groupId><artifactId>d</artifactId></dependency>\n" +
+        "  </dependencies>\n" +
+        "</project>";
+    PomIndex index = PomIndex.create(source);
+
+    assertThat(index.getLine(DependencyUtils.createDependency("d", "d", null), PomUtils.TYPE.dependency)).isEqualTo(9);
+    assertThat(index.getLine(DependencyUtils.createDependency("d", "d", null), PomUtils.TYPE.managedDependency)).isEqualTo(3);
+    assertThat(index.getLine(DependencyUtils.createDependency("d", "d", "1"), PomUtils.TYPE.managedDependency)).isEqualTo(3);
+    assertThat(index.getLine(DependencyUtils.createDependency("d", "d", "2"), PomUtils.TYPE.pluginDependency)).isEqualTo(6);
+    assertThat(index.getLine(DependencyUtils.createDependency("d", "d", "1"), PomUtils.TYPE.dependency)).isZero();
+  }
+
+  @Test
+  public void testElementsSpanningMultipleLines() throws Exception {
+    String source = "<project><build><plugins><plugin>\n" +
+        "  <groupId>a</groupId><artifactId>\n" +
+        "    a\n" +
+        "  </artifactId>\n" +
+        "  <version>\n" +
+        "    1\n" +
+        "  </version>\n" +
+        "</plugin></plugins></build></project>";
+    PomIndex index = PomIndex.create(source);
+
+    assertThat(index.getLine(DependencyUtils.createDependency("a", "a", "1"), PomUtils.TYPE.plugin)).isEqualTo(5);
+    assertThat(index.getLine(DependencyUtils.createDependency("a", "a", null), PomUtils.TYPE.plugin)).isEqualTo(2);
+  }
+
+  @Test
+  public void testMalformedSourceKeepsBlocksIndexedSoFar() throws Exception {
+    String source = "<project><build><plugins>\n" +
+        "<plugin><groupId>a</groupId><artifactId>a</artifactId><version>1</version></plugin>\n" +
+        "<plugin><groupId>b</groupId>\n" +
+        "</project>";
+    PomIndex index = PomIndex.create(source);
+
+    assertThat(index.getLine(DependencyUtils.createDependency("a", "a", "1"), PomUtils.TYPE.plugin)).isEqualTo(2);
+  }
+
+  @Test
+  public void testAllTypesAreResolvedInOneIndex() throws Exception {
+    String source = "<project>\n" +
+        "  <parent><groupId>p</groupId><artifactId>p</artifactId><version>1</version></parent>\n" +
+        "  <dependencies>\n" +
+        "    <dependency><groupId>d</groupId><artifactId>d</artifactId><version>2</version></dependency>\n" +
+        "  </dependencies>\n" +
+        "  <build>\n" +
+        "    <extensions>\n" +
+        "      <extension><groupId>e</groupId><artifactId>e</artifactId><version>3</version></extension>\n" +
+        "    </extensions>\n" +
+        "    <plugins>\n" +
+        "      <plugin><groupId>x</groupId><artifactId>x</artifactId><version>4</version></plugin>\n" +
+        "    </plugins>\n" +
+        "  </build>\n" +
+        "  <reporting>\n" +
+        "    <plugins>\n" +
+        "      <plugin><groupId>r</groupId><artifactId>r</artifactId><version>5</version></plugin>\n" +
+        "    </plugins>\n" +
+        "  </reporting>\n" +
+        "</project>";
+    PomIndex index = PomIndex.create(source);
+
+    assertThat(index.getLine(DependencyUtils.createDependency("p", "p", "1"), PomUtils.TYPE.parent)).isEqualTo(2);
+    assertThat(index.getLine(DependencyUtils.createDependency("d", "d", "2"), PomUtils.TYPE.dependency)).isEqualTo(4);
+    assertThat(index.getLine(DependencyUtils.createDependency("e", "e", "3"), PomUtils.TYPE.extension)).isEqualTo(8);
+    assertThat(index.getLine(DependencyUtils.createDependency("x", "x", "4"), PomUtils.TYPE.plugin)).isEqualTo(11);
+    assertThat(index.getLine(DependencyUtils.createDependency("r", "r", "5"), PomUtils.TYPE.reportPlugin)).isEqualTo(16);
+    assertThat(index.getLine(DependencyUtils.createDependency("r", "r", "5"), PomUtils.TYPE.plugin)).isZero();
+    assertThat(index.getLine(DependencyUtils.createDependency("r", "r", "5"), PomUtils.TYPE.plugin, PomUtils.TYPE.reportPlugin)).isEqualTo(16);
+  }
+
+  @Test
+  public void testIndexFromStream() throws Exception {
+    InputStream stream = new FileInputStream("src/test/resources/pom_missing_maven_version.xml");
+    try {
+      PomIndex index = PomIndex.create(stream);
+
+      assertThat(index.getLine(DependencyUtils.createDependency("org.apache.maven.plugins", "maven-surefire-plugin", "2.10"), PomUtils.TYPE.plugin)).isEqualTo(37);
+    } finally {
+      stream.close();
+    }
+  }
+
+  @Test
+  public void testEmptySource() throws Exception {
+    PomIndex index = PomIndex.create("");
+
+    assertThat(index.getLine(DependencyUtils.createDependency("a", "a", "1"), PomUtils.TYPE.plugin)).isZero();
+  }
+}
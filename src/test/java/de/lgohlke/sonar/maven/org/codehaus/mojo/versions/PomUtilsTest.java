@@ -21,6 +21,8 @@ package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.maven.model.Dependency;
+import org.apache.maven.model.InputLocation;
+import org.apache.maven.model.InputSource;
 import org.testng.annotations.Test;
 
 import java.io.File;
@@ -62,4 +64,31 @@ public class PomUtilsTest {
 
     assertThat(PomUtils.getLine(source, dependency,PomUtils.TYPE.plugin)).isEqualTo(6);
   }
+
+  @Test
+  public void testLineTrackedByModel() throws Exception {
+    File pom = new File("pom.xml");
+    Dependency dependency = new Dependency();
+    dependency.setLocation("version", new InputLocation(12, 7, createSource(pom)));
+
+    assertThat(PomUtils.getLine(dependency, "version", pom.getAbsoluteFile())).isEqualTo(12);
+    assertThat(PomUtils.getLine(dependency, "artifactId", pom)).isZero();
+  }
+
+  @Test
+  public void testLineTrackedInOtherPomIsIgnored() throws Exception {
+    Dependency dependency = new Dependency();
+    dependency.setLocation("version", new InputLocation(12, 7, createSource(new File("../parent/pom.xml"))));
+
+    assertThat(PomUtils.getLine(dependency, "version", new File("pom.xml"))).isZero();
+
+    dependency.setLocation("version", new InputLocation(12, 7));
+    assertThat(PomUtils.getLine(dependency, "version", new File("pom.xml"))).isZero();
+  }
+
+  private static InputSource createSource(File pom) {
+    InputSource source = new InputSource();
+    source.setLocation(pom.getPath());
+    return source;
+  }
 }
@@ -0,0 +1,151 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class RegexAutomatonTest {
+  private static final List<String> VALUES = ImmutableList.of(
+      "",
+      "a",
+      "abc",
+      "a\nc",
+      "org.apache.karaf.features:spring:3.0.0.RC1",
+      "org.apache.karaf.features:spring:3.0.0.RC1 has newer version available: 3.0.0",
+      "org.codehaus.mojo:versions-maven-plugin:1.3.1",
+      "com.google.guava:guava:14.0",
+      "junit:junit:4.11",
+      "junit:junit:4.x",
+      "org.test:test:1.0-RC1",
+      "a-b_c 9",
+      "äöü: :x");
+
+  @DataProvider
+  public Object[][] supportedRules() {
+    return new Object[][]{
+        {"abc"},
+        {"a.c"},
+        {".*"},
+        {"org\\.apache\\..*"},
+        {"org.apache..*?:spring:.*"},
+        {"[^:].*?:[^:].*?:[^:].*RC.*"},
+        {"junit:junit:4\\.\\d+"},
+        {"(com|org)\\.[a-z.]+:.*"},
+        {"(?:a|b)c?"},
+        {"[\\w.-]+:[\\w.-]+:\\d{1,2}(\\.\\d+){0,2}.*"},
+        {"a{2,}bc"},
+        {"\\S+\\s\\S+\\s\\d"},
+        {"[a-]b|a|"},
+        {"[^\\n]*"},
+        {"\\D\\W"},
+    };
+  }
+
+  @Test(dataProvider = "supportedRules")
+  public void testMatchesLikePattern(String rule) {
+    assertThat(RegexAutomaton.isSupported(rule)).isTrue();
+
+    RegexAutomaton automaton = RegexAutomaton.compile(Collections.singletonList(rule));
+    Pattern pattern = Pattern.compile(rule);
+
+    for (String value : VALUES) {
+      if (RegexAutomaton.isMatchable(value)) {
+        assertThat(automaton.matches(value)).as(rule + " on " + value).isEqualTo(pattern.matcher(value).matches());
+      }
+    }
+  }
+
+  @Test
+  public void testUnionMatchesLikeJoinedPattern() {
+    List<String> rules = ImmutableList.of("org\\.apache\\..*", "[^:].*?:[^:].*?:[^:].*RC.*", "junit:junit:4\\.\\d+");
+
+    RegexAutomaton automaton = RegexAutomaton.compile(rules);
+    Pattern pattern = Pattern.compile("(" + Joiner.on(")|(").join(rules) + ")");
+
+    for (String value : VALUES) {
+      if (RegexAutomaton.isMatchable(value)) {
+        assertThat(automaton.matches(value)).as(value).isEqualTo(pattern.matcher(value).matches());
+      }
+    }
+  }
+
+  @Test
+  public void testRulesWithTrailingWildcardShareAcceptingState() {
+    List<String> rules = Lists.newArrayList();
+    for (int i = 0; i < 50; i++) {
+      rules.add("[^:].*?:[^:].*?:[^:]*-beta-" + i + ".*");
+    }
+
+    RegexAutomaton automaton = RegexAutomaton.compile(rules);
+    Pattern pattern = Pattern.compile("(" + Joiner.on(")|(").join(rules) + ")");
+
+    assertThat(automaton.getStateCount()).isLessThan(RegexAutomaton.MAX_STATES / 10);
+    for (String value : ImmutableList.of("org.test:test:1-beta-3-beta-7", "org.test:test:1-beta-3x", "org.test:test:1-beta-",
+        "org.test:test:1-beta-51", "org.test:test-beta-3:1", "org:test:1:1-beta-49")) {
+      assertThat(automaton.matches(value)).as(value).isEqualTo(pattern.matcher(value).matches());
+    }
+  }
+
+  @Test
+  public void testIsMatchable() {
+    assertThat(RegexAutomaton.isMatchable("org.test:test:1.0")).isTrue();
+    assertThat(RegexAutomaton.isMatchable("a\nc")).isFalse();
+    assertThat(RegexAutomaton.isMatchable("a\u2028c")).isFalse();
+    assertThat(RegexAutomaton.isMatchable("a\ud83d\ude00b")).isFalse();
+  }
+
+  @DataProvider
+  public Object[][] unsupportedRules() {
+    return new Object[][]{
+        {"^abc$"},
+        {"(a)\\1"},
+        {"(?=a)a"},
+        {"(?i)abc"},
+        {"a*+"},
+        {"[a-z&&[^c]]"},
+        {"\\Qa.b\\E"},
+        {"\\bword"},
+        {"*a"},
+        {"a{"},
+        {"(a"},
+        {"a)"},
+    };
+  }
+
+  @Test(dataProvider = "unsupportedRules")
+  public void testUnsupported(String rule) {
+    assertThat(RegexAutomaton.isSupported(rule)).isFalse();
+  }
+
+  @Test(expectedExceptions = RegexAutomaton.StateLimitExceededException.class)
+  public void testStateLimit() {
+    RegexAutomaton.compile(Collections.singletonList("[ab]*a[ab]{20}"));
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import de.lgohlke.sonar.maven.Maven3SonarEmbedder;
+import org.apache.maven.artifact.metadata.ArtifactMetadataSource;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.sonar.api.config.Settings;
+import org.sonar.api.resources.ProjectFileSystem;
+import org.sonar.batch.scan.maven.MavenPluginExecutor;
+import org.testng.annotations.Test;
+
+import java.util.Properties;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.fest.reflect.core.Reflection.field;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class UnifiedVersionsBridgeMojoTest {
+  @Test
+  public void shouldFillOnlyRegisteredHandlers() throws Exception {
+    UnifiedVersionsExecution execution = new UnifiedVersionsExecution(mock(MavenPluginExecutor.class), mock(ProjectFileSystem.class), new Settings());
+    DisplayDependencyUpdatesSensor.DisplayDependencyUpdatesResultHandler dependencyHandler = new DisplayDependencyUpdatesSensor.DisplayDependencyUpdatesResultHandler();
+    UpdateParentPomSensor.ResultHandler parentHandler = new UpdateParentPomSensor.ResultHandler();
+    execution.register(dependencyHandler);
+    execution.register(parentHandler);
+
+    UnifiedVersionsBridgeMojo mojo = new UnifiedVersionsBridgeMojo();
+    field("project").ofType(MavenProject.class).in(mojo).set(mock(MavenProject.class));
+    mojo.setResultHandler(execution.getResultHandler());
+    mojo.execute();
+
+    assertThat(dependencyHandler.getUpdateMap()).isNotNull();
+    assertThat(parentHandler.getNewerVersion()).isNull();
+    assertThat(execution.getResultHandler().getPluginUpdatesHandler()).isNull();
+  }
+
+  @Test
+  public void shouldDecorateMetadataSourceOnce() throws Exception {
+    Properties userProperties = new Properties();
+    userProperties.setProperty(Maven3SonarEmbedder.LOCAL_MIRROR_PROPERTY, "/mirror");
+    MavenSession session = mock(MavenSession.class);
+    when(session.getUserProperties()).thenReturn(userProperties);
+    ArtifactMetadataSource original = mock(ArtifactMetadataSource.class);
+    UnifiedVersionsBridgeMojo mojo = new UnifiedVersionsBridgeMojo();
+    field("session").ofType(MavenSession.class).in(mojo).set(session);
+    field("artifactMetadataSource").ofType(ArtifactMetadataSource.class).in(mojo).set(original);
+
+    mojo.getHelper();
+    ArtifactMetadataSource decorated = field("artifactMetadataSource").ofType(ArtifactMetadataSource.class).in(mojo).get();
+    mojo.getHelper();
+
+    assertThat(field("artifactMetadataSource").ofType(ArtifactMetadataSource.class).in(mojo).get()).isSameAs(decorated);
+    assertThat(decorated).isInstanceOf(CachingArtifactMetadataSource.class);
+    ArtifactMetadataSource withMirror = field("delegate").ofType(ArtifactMetadataSource.class).in(decorated).get();
+    assertThat(withMirror).isInstanceOf(LocalMirrorMetadataSource.class);
+    assertThat(field("delegate").ofType(ArtifactMetadataSource.class).in(withMirror).get()).isSameAs(original);
+    assertThat(field("undecoratedMetadataSource").ofType(ArtifactMetadataSource.class).in(mojo).get()).isSameAs(original);
+  }
+
+  @Test
+  public void shouldCopyInjectedFields() {
+    UnifiedVersionsBridgeMojo mojo = new UnifiedVersionsBridgeMojo();
+    MavenProject project = mock(MavenProject.class);
+    field("project").ofType(MavenProject.class).in(mojo).set(project);
+
+    UpdateParentBridgeMojo target = UnifiedVersionsBridgeMojo.copyInjectedFields(mojo, new UpdateParentBridgeMojo());
+
+    assertThat(target.getProject()).isSameAs(project);
+  }
+
+  @Test
+  public void shouldPassUserParametersToDelegates() {
+    Properties userProperties = new Properties();
+    userProperties.setProperty("processDependencies", "false");
+    userProperties.setProperty("parentVersion", "[1.0,2.0)");
+    Properties systemProperties = new Properties();
+    systemProperties.setProperty("processDependencyManagement", "false");
+    systemProperties.setProperty("parentVersion", "3.0");
+    MavenSession session = mock(MavenSession.class);
+    when(session.getUserProperties()).thenReturn(userProperties);
+    when(session.getSystemProperties()).thenReturn(systemProperties);
+
+    UnifiedVersionsBridgeMojo mojo = new UnifiedVersionsBridgeMojo();
+    field("session").ofType(MavenSession.class).in(mojo).set(session);
+    UnifiedVersionsExecution.ResultHandler resultHandler = new UnifiedVersionsExecution.ResultHandler();
+    LookupConfiguration lookupConfiguration = new LookupConfiguration(4, LookupExecutorBackend.FIXED_THREAD_POOL);
+    resultHandler.setLookupConfiguration(lookupConfiguration);
+    mojo.setResultHandler(resultHandler);
+
+    DisplayDependencyUpdatesBridgeMojo dependencyMojo = mojo.createDependencyUpdatesMojo();
+    assertThat(field("lookupConfiguration").ofType(LookupConfiguration.class).in(dependencyMojo).get()).isSameAs(lookupConfiguration);
+    assertThat(field("processDependencies").ofType(Boolean.class).in(dependencyMojo).get()).isFalse();
+    assertThat(field("processDependencyManagement").ofType(Boolean.class).in(dependencyMojo).get()).isFalse();
+    UpdateParentBridgeMojo parentMojo = mojo.createParentUpdateMojo();
+    assertThat(field("parentVersion").ofType(String.class).in(parentMojo).get()).isEqualTo("[1.0,2.0)");
+    assertThat(field("lookupConfiguration").ofType(LookupConfiguration.class).in(parentMojo).get()).isSameAs(lookupConfiguration);
+    assertThat(field("lookupConfiguration").ofType(LookupConfiguration.class).in(mojo.createPluginUpdatesMojo()).get()).isSameAs(lookupConfiguration);
+  }
+
+  @Test
+  public void shouldLeaveUnsetParametersNull() {
+    MavenSession session = mock(MavenSession.class);
+    when(session.getUserProperties()).thenReturn(new Properties());
+    when(session.getSystemProperties()).thenReturn(new Properties());
+    UnifiedVersionsBridgeMojo mojo = new UnifiedVersionsBridgeMojo();
+    field("session").ofType(MavenSession.class).in(mojo).set(session);
+    mojo.setResultHandler(new UnifiedVersionsExecution.ResultHandler());
+
+    assertThat(field("processDependencies").ofType(Boolean.class).in(mojo.createDependencyUpdatesMojo()).get()).isNull();
+    assertThat(mojo.getParameter("update-parent", "parentVersion")).isNull();
+  }
+
+  @Test
+  public void shouldPreferPomConfigurationOverSessionProperties() {
+    Properties userProperties = new Properties();
+    userProperties.setProperty("processDependencies", "true");
+    userProperties.setProperty("parentVersion", "3.0");
+    MavenSession session = mock(MavenSession.class);
+    when(session.getUserProperties()).thenReturn(userProperties);
+    when(session.getSystemProperties()).thenReturn(new Properties());
+
+    Plugin plugin = new Plugin();
+    plugin.setGroupId("org.codehaus.mojo");
+    plugin.setArtifactId("versions-maven-plugin");
+    plugin.setConfiguration(configuration("processDependencies", "false", "allowSnapshots", "false"));
+    PluginExecution dependencyExecution = new PluginExecution();
+    dependencyExecution.setId("dependencies");
+    dependencyExecution.addGoal("display-dependency-updates");
+    dependencyExecution.setConfiguration(configuration("processDependencyManagement", "false", "allowSnapshots", "true"));
+    plugin.addExecution(dependencyExecution);
+    PluginExecution cliExecution = new PluginExecution();
+    cliExecution.setId("default-cli");
+    cliExecution.setConfiguration(configuration("parentVersion", "[1.0,2.0)"));
+    plugin.addExecution(cliExecution);
+    MavenProject project = new MavenProject();
+    project.getBuild().addPlugin(plugin);
+
+    UnifiedVersionsBridgeMojo mojo = new UnifiedVersionsBridgeMojo();
+    mojo.setProject(project);
+    field("session").ofType(MavenSession.class).in(mojo).set(session);
+    mojo.setResultHandler(new UnifiedVersionsExecution.ResultHandler());
+
+    DisplayDependencyUpdatesBridgeMojo dependencyMojo = mojo.createDependencyUpdatesMojo();
+    assertThat(field("processDependencies").ofType(Boolean.class).in(dependencyMojo).get()).isFalse();
+    assertThat(field("processDependencyManagement").ofType(Boolean.class).in(dependencyMojo).get()).isFalse();
+    assertThat(field("allowSnapshots").ofType(Boolean.class).in(dependencyMojo).get()).isTrue();
+    UpdateParentBridgeMojo parentMojo = mojo.createParentUpdateMojo();
+    assertThat(field("parentVersion").ofType(String.class).in(parentMojo).get()).isEqualTo("[1.0,2.0)");
+    assertThat(field("allowSnapshots").ofType(Boolean.class).in(parentMojo).get()).isFalse();
+  }
+
+  private static Xpp3Dom configuration(final String... namesAndValues) {
+    Xpp3Dom configuration = new Xpp3Dom("configuration");
+    for (int i = 0; i < namesAndValues.length; i += 2) {
+      Xpp3Dom parameter = new Xpp3Dom(namesAndValues[i]);
+      parameter.setValue(namesAndValues[i + 1]);
+      configuration.addChild(parameter);
+    }
+    return configuration;
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import de.lgohlke.sonar.MavenPlugin;
+import de.lgohlke.sonar.PomSourceImporter;
+import de.lgohlke.sonar.maven.MavenBaseSensor;
+import org.apache.maven.project.MavenProject;
+import org.sonar.api.batch.maven.MavenPluginHandler;
+import org.sonar.api.config.Settings;
+import org.sonar.api.profiles.RulesProfile;
+import org.sonar.api.resources.Project;
+import org.sonar.api.resources.ProjectFileSystem;
+import org.sonar.batch.scan.maven.MavenPluginExecutor;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class UnifiedVersionsExecutionTest {
+
+  @Test
+  public void shouldRunOncePerModule() {
+    UnifiedVersionsExecution execution = createExecution();
+
+    MavenPluginHandler handler = execution.claimMavenPluginHandler("first");
+
+    assertThat(handler.getArtifactId()).isEqualTo("versions-maven-plugin");
+    assertThat(handler.getGoals()).containsOnly("display-plugin-updates");
+    assertThat(execution.claimMavenPluginHandler("second")).isNull();
+  }
+
+  @Test
+  public void shouldKeepHandlerOfOwnerAcrossSonarPhases() {
+    UnifiedVersionsExecution execution = createExecution();
+    MavenProject mavenProject = mock(MavenProject.class);
+    PomSourceImporter pomSourceImporter = mock(PomSourceImporter.class);
+    List<MavenBaseSensor<?>> sensors = Arrays.<MavenBaseSensor<?>>asList(
+        new DisplayPluginUpdatesSensor(mock(RulesProfile.class), mock(MavenPluginExecutor.class), mavenProject, new Settings(), pomSourceImporter, new PomIndexCache(), new ArtifactFilterRegistry(), execution),
+        new DisplayDependencyUpdatesSensor(mock(RulesProfile.class), mock(MavenPluginExecutor.class), mavenProject, new Settings(), pomSourceImporter, new PomIndexCache(), new ArtifactFilterRegistry(), execution),
+        new UpdateParentPomSensor(mock(RulesProfile.class), mock(MavenPluginExecutor.class), mavenProject, pomSourceImporter, new PomIndexCache(), execution));
+    Project project = new Project("key");
+
+    // MavenPluginsConfigurator asks every sensor first, SensorsExecutor asks again before each analysis
+    for (int phase = 0; phase < 2; phase++) {
+      assertThat(sensors.get(0).getMavenPluginHandler(project)).isNotNull();
+      assertThat(sensors.get(1).getMavenPluginHandler(project)).isNull();
+      assertThat(sensors.get(2).getMavenPluginHandler(project)).isNull();
+    }
+  }
+
+  @Test
+  public void shouldInjectLookupConfigurationFromSettings() {
+    Settings settings = new Settings();
+    settings.setProperty(DisplayDependencyUpdatesSensor.LOOKUP_THREADS_KEY, 4);
+    settings.setProperty(MavenPlugin.LOOKUP_EXECUTOR, "VIRTUAL_THREAD_PER_TASK");
+    UnifiedVersionsExecution execution = new UnifiedVersionsExecution(mock(MavenPluginExecutor.class), mock(ProjectFileSystem.class), settings);
+    assertThat(execution.getResultHandler().getLookupConfiguration()).isSameAs(LookupConfiguration.SEQUENTIAL);
+
+    execution.claimMavenPluginHandler("first");
+
+    LookupConfiguration configuration = execution.getResultHandler().getLookupConfiguration();
+    assertThat(configuration.getThreads()).isEqualTo(4);
+    assertThat(configuration.getExecutorBackend()).isEqualTo(LookupExecutorBackend.fromSetting("VIRTUAL_THREAD_PER_TASK"));
+  }
+
+  private static UnifiedVersionsExecution createExecution() {
+    return new UnifiedVersionsExecution(mock(MavenPluginExecutor.class), mock(ProjectFileSystem.class), new Settings());
+  }
+}
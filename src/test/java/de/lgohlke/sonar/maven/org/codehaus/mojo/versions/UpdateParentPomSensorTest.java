@@ -0,0 +1,167 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import com.google.common.collect.Lists;
+import de.lgohlke.sonar.PomSourceImporter;
+import lombok.Getter;
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+import org.apache.maven.model.InputLocation;
+import org.apache.maven.model.InputSource;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.project.MavenProject;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.sonar.api.config.Settings;
+import org.sonar.api.profiles.RulesProfile;
+import org.sonar.api.resources.Project;
+import org.sonar.api.resources.ProjectFileSystem;
+import org.sonar.api.rules.ActiveRule;
+import org.sonar.api.rules.Violation;
+import org.sonar.batch.DefaultSensorContext;
+import org.sonar.batch.scan.maven.MavenPluginExecutor;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.util.List;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class UpdateParentPomSensorTest {
+  private static final String POM_SOURCE = "<project>\n" +
+      "  <modelVersion>4.0.0</modelVersion>\n" +
+      "  <parent>\n" +
+      "    <groupId>p</groupId>\n" +
+      "    <artifactId>p</artifactId>\n" +
+      "    <version>1</version>\n" +
+      "  </parent>\n" +
+      "</project>";
+
+  private final File pom = new File("pom.xml");
+  private final org.sonar.api.resources.File pomFile = new org.sonar.api.resources.File("", "pom.xml");
+  private Parent parent;
+  private PomSourceImporter pomSourceImporter;
+  private UpdateParentPomSensor sensor;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    parent = new Parent();
+    parent.setGroupId("p");
+    parent.setArtifactId("p");
+    parent.setVersion("1");
+    Model model = new Model();
+    model.setParent(parent);
+
+    MavenProject mavenProject = mock(MavenProject.class);
+    when(mavenProject.getModel()).thenReturn(model);
+    when(mavenProject.getFile()).thenReturn(pom);
+
+    RulesProfile rulesProfile = mock(RulesProfile.class);
+    when(rulesProfile.getActiveRuleByConfigKey(any(String.class), any(String.class))).thenReturn(mock(ActiveRule.class));
+
+    pomSourceImporter = mock(PomSourceImporter.class);
+    when(pomSourceImporter.getPomFile()).thenReturn(pomFile);
+    when(pomSourceImporter.getPomOnDisk()).thenReturn(pom);
+    when(pomSourceImporter.openPomStream()).thenAnswer(new Answer<InputStream>() {
+      @Override
+      public InputStream answer(InvocationOnMock invocation) throws Throwable {
+        return new ByteArrayInputStream(POM_SOURCE.getBytes("UTF-8"));
+      }
+    });
+
+    MavenPluginExecutor mavenPluginExecutor = mock(MavenPluginExecutor.class);
+    sensor = new UpdateParentPomSensor(rulesProfile, mavenPluginExecutor, mavenProject, pomSourceImporter, new PomIndexCache(),
+        new UnifiedVersionsExecution(mavenPluginExecutor, mock(ProjectFileSystem.class), new Settings()));
+  }
+
+  @Test
+  public void shouldNotReportWithoutNewerVersion() throws Exception {
+    assertThat(analyse()).isEmpty();
+  }
+
+  @Test
+  public void shouldReportOnParentVersionOfPomFile() throws Exception {
+    setVersions("1", "2");
+
+    List<Violation> violations = analyse();
+
+    assertThat(violations).hasSize(1);
+    assertThat(violations.get(0).getResource()).isSameAs(pomFile);
+    assertThat(violations.get(0).getLineId()).isEqualTo(6);
+    assertThat(violations.get(0).getMessage()).contains("currently used is 1 but 2 is available");
+  }
+
+  @Test
+  public void shouldFallBackToParentWhenVersionIsNotInPom() throws Exception {
+    setVersions("1.0-resolved", "2");
+
+    assertThat(analyse().get(0).getLineId()).isEqualTo(5);
+  }
+
+  @Test
+  public void shouldFallBackToFirstLineWithoutParent() throws Exception {
+    parent.setArtifactId("other");
+    setVersions("1", "2");
+
+    assertThat(analyse().get(0).getLineId()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldPreferLineTrackedByModel() throws Exception {
+    InputSource source = new InputSource();
+    source.setLocation(pom.getAbsolutePath());
+    parent.setLocation("version", new InputLocation(4, 5, source));
+    setVersions("1", "2");
+
+    assertThat(analyse().get(0).getLineId()).isEqualTo(4);
+  }
+
+  private void setVersions(String currentVersion, String newerVersion) {
+    sensor.getMojoMapper().getResultTransferHandler().setCurrentVersion(currentVersion);
+    sensor.getMojoMapper().getResultTransferHandler().setNewerVersion(new DefaultArtifactVersion(newerVersion));
+  }
+
+  private List<Violation> analyse() {
+    TestSensorContext context = new TestSensorContext();
+    sensor.analyse(mock(Project.class), context);
+    return context.getViolations();
+  }
+
+  private static class TestSensorContext extends DefaultSensorContext {
+    @Getter
+    private List<Violation> violations = Lists.newArrayList();
+
+    public TestSensorContext() {
+      super(null, null);
+    }
+
+    @Override
+    public void saveViolation(Violation violation) {
+      violations.add(violation);
+    }
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Sonar maven checks plugin
+ * Copyright (C) 2012 Lars Gohlke
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package de.lgohlke.sonar.maven.org.codehaus.mojo.versions;
+
+import com.google.common.collect.Lists;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.metadata.ArtifactMetadataSource;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.versioning.ArtifactVersion;
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class VersionMetadataCacheTest {
+  private final ArtifactRepository localRepository = repository("local", "file:///repo");
+  private final List<ArtifactRepository> remoteRepositories = Collections.singletonList(repository("central", "http://repo1.maven.org/maven2"));
+  private final List<ArtifactVersion> versions = Lists.<ArtifactVersion>newArrayList(new DefaultArtifactVersion("1.0"), new DefaultArtifactVersion("1.1"));
+  private ArtifactMetadataSource delegate;
+  private VersionMetadataCache cache;
+  private ArtifactMetadataSource source;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    delegate = mock(ArtifactMetadataSource.class);
+    when(delegate.retrieveAvailableVersions(any(Artifact.class), any(ArtifactRepository.class), anyListOf(ArtifactRepository.class))).thenReturn(versions);
+    cache = new VersionMetadataCache();
+    source = cache.decorate(delegate);
+  }
+
+  @Test
+  public void shouldFetchVersionsOnce() throws Exception {
+    assertThat(source.retrieveAvailableVersions(artifact("org.example", "lib", "1.0"), localRepository, remoteRepositories)).isEqualTo(versions);
+    assertThat(source.retrieveAvailableVersions(artifact("org.example", "lib", "1.1"), localRepository, remoteRepositories)).isEqualTo(versions);
+
+    verify(delegate, times(1)).retrieveAvailableVersions(any(Artifact.class), any(ArtifactRepository.class), anyListOf(ArtifactRepository.class));
+    assertThat(cache.getHitCount()).isEqualTo(1);
+    assertThat(cache.getMissCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldKeyByRepositories() throws Exception {
+    List<ArtifactRepository> pluginRepositories = Collections.singletonList(repository("plugins", "http://plugins.example.org"));
+
+    source.retrieveAvailableVersions(artifact("org.example", "lib", "1.0"), localRepository, remoteRepositories);
+    source.retrieveAvailableVersions(artifact("org.example", "lib", "1.0"), localRepository, pluginRepositories);
+    source.retrieveAvailableVersions(artifact("org.example", "other", "1.0"), localRepository, remoteRepositories);
+
+    assertThat(cache.size()).isEqualTo(3);
+  }
+
+  @Test
+  public void shouldKeyByMirror() throws Exception {
+    ArtifactMetadataSource withMirror = cache.decorate(delegate, "/mirror");
+
+    source.retrieveAvailableVersions(artifact("org.example", "lib", "1.0"), localRepository, remoteRepositories);
+    withMirror.retrieveAvailableVersions(artifact("org.example", "lib", "1.0"), localRepository, remoteRepositories);
+
+    verify(delegate, times(2)).retrieveAvailableVersions(any(Artifact.class), any(ArtifactRepository.class), anyListOf(ArtifactRepository.class));
+    assertThat(cache.size()).isEqualTo(2);
+  }
+
+  @Test
+  public void shouldFetchAgainAfterInvalidation() throws Exception {
+    source.retrieveAvailableVersions(artifact("org.example", "lib", "1.0"), localRepository, remoteRepositories);
+    cache.invalidateAll();
+    source.retrieveAvailableVersions(artifact("org.example", "lib", "1.0"), localRepository, remoteRepositories);
+
+    verify(delegate, times(2)).retrieveAvailableVersions(any(Artifact.class), any(ArtifactRepository.class), anyListOf(ArtifactRepository.class));
+  }
+
+  @Test
+  public void shouldReturnCopies() throws Exception {
+    source.retrieveAvailableVersions(artifact("org.example", "lib", "1.0"), localRepository, remoteRepositories).clear();
+
+    assertThat(source.retrieveAvailableVersions(artifact("org.example", "lib", "1.0"), localRepository, remoteRepositories)).hasSize(2);
+  }
+
+  @Test
+  public void shouldDecorateOnlyOnce() {
+    assertThat(cache.decorate(source)).isSameAs(source);
+    assertThat(cache.decorate(null)).isNull();
+  }
+
+  @Test
+  public void shouldInvalidateDefaultCacheAtBatchEnd() throws Exception {
+    ArtifactMetadataSource defaultSource = VersionMetadataCache.getDefault().decorate(delegate);
+    defaultSource.retrieveAvailableVersions(artifact("org.example", "lib", "1.0"), localRepository, remoteRepositories);
+
+    new VersionMetadataCacheLifecycle().stop();
+
+    assertThat(VersionMetadataCache.getDefault().size()).isZero();
+  }
+
+  private static Artifact artifact(String groupId, String artifactId, String version) {
+    Artifact artifact = mock(Artifact.class);
+    when(artifact.getGroupId()).thenReturn(groupId);
+    when(artifact.getArtifactId()).thenReturn(artifactId);
+    when(artifact.getVersion()).thenReturn(version);
+    return artifact;
+  }
+
+  private static ArtifactRepository repository(String id, String url) {
+    ArtifactRepository repository = mock(ArtifactRepository.class);
+    when(repository.getId()).thenReturn(id);
+    when(repository.getUrl()).thenReturn(url);
+    return repository;
+  }
+}